@@ -0,0 +1,172 @@
+package study.datajpa.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * [자연 키 → id 캐시] <br/>
+ * (엔티티 타입, 속성, 값) → id를 LRU로 보관한다. 단건 조회 쿼리가 1건을 돌려줬을 때만 적재된다. (NaturalIdLookupAdvice) <br/>
+ * 유일성은 적재할 때만 확인하고 적중 시에는 다시 확인하지 않는다. (아래 무효화에 의존) <br/>
+ * 무효화 <br/>
+ * 1. 엔티티 저장/수정/삭제 이벤트(NaturalIdInvalidationListener) : 해당 값을 즉시, 그리고 트랜잭션 종료 후 한번 더 제거 <br/>
+ * 2. 조회 시점 검증 : id로 가져온 엔티티의 속성 값이 다르거나 없으면 제거 후 쿼리 (벌크 연산, 네이티브 수정/삭제) <br/>
+ * 3. 이벤트 없는 insert(StatelessSession, JDBC 적재)는 유일성을 깨뜨릴 수 있으므로 clear()를 호출한다. <br/>
+ * 적재는 조회 시작 이후 무효화가 한 번도 없었을 때만 한다. (조회 도중 커밋된 변경을 캐시에 남기지 않는다.) <br/>
+ * datajpa.natural-id-cache.max-entries : 보관할 최대 값 수 (LRU)
+ */
+@Component
+public class NaturalIdCache {
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Object> ids;
+    private final Map<Class<?>, Set<String>> properties = new ConcurrentHashMap<>();
+    /** 무효화마다 증가하는 논리 시계 */
+    private final AtomicLong clock = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public NaturalIdCache(@Value("${datajpa.natural-id-cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.ids = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > NaturalIdCache.this.maxEntries;
+            }
+        };
+    }
+
+    /** 자연 키로 조회되는 속성 등록 (이벤트 리스너가 확인할 속성) */
+    public void register(Class<?> entityType, String property) {
+        properties.computeIfAbsent(entityType, type -> ConcurrentHashMap.newKeySet()).add(property);
+    }
+
+    public Set<String> propertiesOf(Class<?> entityType) {
+        return properties.getOrDefault(entityType, Collections.emptySet());
+    }
+
+    /** 조회 시작 시각 (put에 넘긴다.) */
+    public long now() {
+        return clock.get();
+    }
+
+    public Object resolve(Class<?> entityType, String property, Object value) {
+        Object id;
+        synchronized (ids) {
+            id = ids.get(new Key(entityType, property, value));
+        }
+        if (id == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return id;
+    }
+
+    public void put(Class<?> entityType, String property, Object value, Object id, long stamp) {
+        synchronized (ids) {
+            if (clock.get() == stamp) {
+                ids.put(new Key(entityType, property, value), id);
+            }
+        }
+    }
+
+    /** 해당 값을 지금 제거하고, 트랜잭션 안이면 종료 후 다시 제거한다. */
+    public void invalidate(Class<?> entityType, String property, Object value) {
+        Key key = new Key(entityType, property, value);
+        remove(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(key);
+                }
+            });
+        }
+    }
+
+    /** 전체를 지금 비우고, 트랜잭션 안이면 종료 후 다시 비운다. */
+    public void clear() {
+        removeAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    removeAll();
+                }
+            });
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public int size() {
+        synchronized (ids) {
+            return ids.size();
+        }
+    }
+
+    private void remove(Key key) {
+        synchronized (ids) {
+            clock.incrementAndGet();
+            ids.remove(key);
+        }
+        invalidations.increment();
+    }
+
+    private void removeAll() {
+        synchronized (ids) {
+            clock.incrementAndGet();
+            ids.clear();
+        }
+        invalidations.increment();
+    }
+
+    private static final class Key {
+        private final Class<?> entityType;
+        private final String property;
+        private final Object value;
+
+        Key(Class<?> entityType, String property, Object value) {
+            this.entityType = entityType;
+            this.property = property;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return entityType.equals(other.entityType) && property.equals(other.property)
+                    && Objects.equals(value, other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityType, property, value);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * NaturalIdInvalidationListener를 Hibernate 이벤트 레지스트리에 등록한다.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class NaturalIdCacheConfig {
+
+    private final EntityManagerFactory emf;
+    private final NaturalIdCache naturalIdCache;
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        NaturalIdInvalidationListener listener = new NaturalIdInvalidationListener(naturalIdCache);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+}
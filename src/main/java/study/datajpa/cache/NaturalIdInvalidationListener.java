@@ -0,0 +1,57 @@
+package study.datajpa.cache;
+
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Set;
+
+/**
+ * 엔티티 저장/수정/삭제 시 자연 키 속성 값(변경 전, 후)을 NaturalIdCache에서 제거한다. <br/>
+ * 저장 : 같은 값의 두번째 엔티티가 생기면 더이상 유일하지 않다. <br/>
+ * 수정 : 이전 값은 다른 엔티티를 가리킬 수 있고, 새 값은 유일하지 않을 수 있다.
+ */
+public class NaturalIdInvalidationListener implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener {
+
+    private final NaturalIdCache cache;
+
+    public NaturalIdInvalidationListener(NaturalIdCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidate(event.getPersister(), event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Class<?> type = event.getPersister().getMappedClass();
+        if (event.getOldState() == null && !cache.propertiesOf(type).isEmpty()) {
+            cache.clear(); // 스냅샷 없는 수정(준영속 update)은 이전 값을 알 수 없다.
+        }
+        invalidate(event.getPersister(), event.getOldState());
+        invalidate(event.getPersister(), event.getState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getPersister(), event.getDeletedState());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void invalidate(EntityPersister persister, Object[] state) {
+        if (state == null) {
+            return;
+        }
+        Class<?> type = persister.getMappedClass();
+        Set<String> properties = cache.propertiesOf(type);
+        for (String property : properties) {
+            cache.invalidate(type, property, state[persister.getEntityMetamodel().getPropertyIndex(property)]);
+        }
+    }
+}
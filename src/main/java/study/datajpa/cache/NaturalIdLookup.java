@@ -0,0 +1,21 @@
+package study.datajpa.cache;
+
+import java.lang.annotation.*;
+
+/**
+ * [자연 키 조회] <br/>
+ * 첫번째 파라미터가 엔티티 속성(property) 값인 단순 조회 메소드에 선언한다. (예: findMemberByUsername) <br/>
+ * 조회 결과가 정확히 1건이면 (속성 값 → id)를 NaturalIdCache에 보관하고, <br/>
+ * 다음 조회는 쿼리 대신 id로 영속성 컨텍스트/DB에서 가져온다. (영속성 컨텍스트에 있으면 SQL 없음) <br/>
+ * 결과가 0건이면 보관하지 않는다. (2건 이상이면 단건 조회라 예외가 발생한다.) <br/>
+ * 유일성은 캐시에 없어서 쿼리를 실행할 때만 확인한다. 적중 후에 생긴 같은 값의 row는 저장 이벤트의 무효화로만 반영된다. <br/>
+ * 반환 타입 : 엔티티, Optional (적중 시 1건만 돌려주므로 List 조회에는 사용하지 않는다. @Lock 메소드에도 사용하지 않는다.)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface NaturalIdLookup {
+
+    /** 조회 조건 엔티티 속성명 */
+    String value() default "username";
+}
@@ -0,0 +1,180 @@
+package study.datajpa.cache;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.repository.support.RepositoryAdvice;
+
+import javax.persistence.EntityManager;
+import javax.persistence.QueryHint;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * @NaturalIdLookup이 선언된 리포지토리 메소드를 가로채 NaturalIdCache를 먼저 확인한다. <br/>
+ * 적중 : em.find(id) - 영속성 컨텍스트에 있으면 SQL 없이, 없으면 PK 조회 1번 <br/>
+ * 쿼리를 실행해야 하는 경우 <br/>
+ * 1. 캐시에 없음 → 결과가 정확히 1건이면 id 적재 <br/>
+ * 2. 가져온 엔티티가 없거나 속성 값이 다름 (이벤트 없이 바뀐 row) → 제거 <br/>
+ * 3. 조회 대상 타입에 flush 전 변경이 있음 (쿼리였다면 flush 후 다른 결과가 나올 수 있다.) <br/>
+ * - ActionQueue에 대상 테이블의 insert/update/delete가 쌓여 있거나, 관리 중인 대상 엔티티의 조회 속성이 로딩 때와 다름 <br/>
+ * - 전체 변경감지(session.isDirty())는 모든 엔티티를 비교하므로 쓰지 않는다. <br/>
+ * 4. 영속성 컨텍스트의 엔티티가 datajpa.natural-id-cache.max-context-entities를 넘음 (배치 등 - 확인 비용이 쿼리보다 크다.) <br/>
+ * readOnly 힌트 메소드는 적중 시에도 읽기 전용으로 가져온다. <br/>
+ * 유일성은 쿼리를 실행할 때만 확인한다. (적중 시에는 같은 값의 다른 row를 찾지 않으므로 단건 반환 메소드에만 허용한다.)
+ */
+@Component
+@Order(150)
+public class NaturalIdLookupAdvice implements RepositoryAdvice {
+
+    private static final String READ_ONLY_HINT = "org.hibernate.readOnly";
+
+    private final NaturalIdCache cache;
+    private final EntityManager em;
+    private final int maxContextEntities;
+
+    public NaturalIdLookupAdvice(NaturalIdCache cache, EntityManager em,
+                                 @Value("${datajpa.natural-id-cache.max-context-entities:1000}") int maxContextEntities) {
+        this.cache = cache;
+        this.em = em;
+        this.maxContextEntities = maxContextEntities;
+    }
+
+    @Override
+    public MethodInterceptor interceptorFor(RepositoryInformation repositoryInformation) {
+        Class<?> domainType = repositoryInformation.getDomainType();
+        Map<Method, String> properties = new HashMap<>();
+        for (Method method : repositoryInformation.getRepositoryInterface().getMethods()) {
+            NaturalIdLookup lookup = AnnotatedElementUtils.findMergedAnnotation(method, NaturalIdLookup.class);
+            if (lookup != null) {
+                validate(method, domainType);
+                properties.put(method, lookup.value());
+                cache.register(domainType, lookup.value());
+            }
+        }
+        if (properties.isEmpty()) {
+            return null;
+        }
+
+        return invocation -> {
+            Method method = invocation.getMethod();
+            String property = properties.get(method);
+            Object value = property == null ? null : invocation.getArguments()[0];
+            if (value == null) {
+                return invocation.proceed();
+            }
+
+            Object id = cache.resolve(domainType, property, value);
+            if (id != null) {
+                Object entity = load(method, domainType, id, property, value);
+                if (entity != null) {
+                    return adapt(method, entity);
+                }
+            }
+
+            long stamp = cache.now(); // 쿼리 실행 전에 읽어야 실행 도중의 무효화를 놓치지 않는다.
+            Object result = invocation.proceed();
+            Object single = single(result);
+            if (domainType.isInstance(single)) {
+                cache.put(domainType, property, value, em.getEntityManagerFactory().getPersistenceUnitUtil()
+                        .getIdentifier(single), stamp);
+            }
+            return result;
+        };
+    }
+
+    /** id로 가져온 엔티티. 쿼리를 실행해야 하면 null */
+    private Object load(Method method, Class<?> domainType, Object id, String property, Object value) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null; // 리포지토리 트랜잭션 밖에서 호출된 경우 (영속성 컨텍스트가 없다.)
+        }
+        Session session = em.unwrap(Session.class);
+        if (hasPendingChanges(session.unwrap(SessionImplementor.class), domainType, property)) {
+            return null;
+        }
+        boolean readOnly = session.isDefaultReadOnly();
+        if (isReadOnly(method)) {
+            session.setDefaultReadOnly(true);
+        }
+        Object entity;
+        try {
+            entity = em.find(domainType, id);
+        } finally {
+            session.setDefaultReadOnly(readOnly);
+        }
+        if (entity == null || !Objects.equals(value, new BeanWrapperImpl(entity).getPropertyValue(property))) {
+            cache.invalidate(domainType, property, value);
+            return null;
+        }
+        return entity;
+    }
+
+    /** 대상 타입의 flush 전 변경 (확인 비용을 제한하기 위해 컨텍스트가 크면 변경이 있는 것으로 본다.) */
+    private boolean hasPendingChanges(SessionImplementor session, Class<?> domainType, String property) {
+        PersistenceContext context = session.getPersistenceContextInternal();
+        if (context.getNumberOfManagedEntities() > maxContextEntities) {
+            return true;
+        }
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(domainType);
+        if (session.getActionQueue().areTablesToBeUpdated(new HashSet<>(Arrays.asList(persister.getQuerySpaces())))) {
+            return true;
+        }
+        int index = persister.getEntityMetamodel().getPropertyIndex(property);
+        for (Map.Entry<Object, EntityEntry> managed : context.reentrantSafeEntityEntries()) {
+            EntityEntry entry = managed.getValue();
+            Object[] loadedState = entry.getLoadedState();
+            if (loadedState != null && domainType.isAssignableFrom(entry.getPersister().getMappedClass())
+                    && !Objects.equals(loadedState[index], entry.getPersister().getPropertyValue(managed.getKey(), index))) {
+                return true; // 읽기 전용 엔티티는 loadedState가 없다. (변경이 반영되지 않는다.)
+            }
+        }
+        return false;
+    }
+
+    private static Object adapt(Method method, Object entity) {
+        Class<?> returnType = method.getReturnType();
+        return Optional.class.equals(returnType) ? Optional.of(entity) : entity;
+    }
+
+    private static Object single(Object result) {
+        return result instanceof Optional ? ((Optional<?>) result).orElse(null) : result;
+    }
+
+    private static boolean isReadOnly(Method method) {
+        QueryHints hints = AnnotatedElementUtils.findMergedAnnotation(method, QueryHints.class);
+        if (hints == null) {
+            return false;
+        }
+        for (QueryHint hint : hints.value()) {
+            if (READ_ONLY_HINT.equals(hint.name()) && Boolean.parseBoolean(hint.value())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void validate(Method method, Class<?> domainType) {
+        Class<?> returnType = method.getReturnType();
+        Class<?> element = Optional.class.equals(returnType)
+                ? ResolvableType.forMethodReturnType(method).getGeneric(0).resolve()
+                : returnType;
+        if (method.getParameterCount() == 0 || !domainType.equals(element)
+                || AnnotatedElementUtils.hasAnnotation(method, Lock.class)) {
+            throw new IllegalStateException("@NaturalIdLookup requires a lookup parameter, a "
+                    + domainType.getSimpleName() + " / Optional return type and no @Lock: " + method);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package study.datajpa.cache;
+
+import java.lang.annotation.*;
+
+/**
+ * [쿼리 결과 캐시] <br/>
+ * 리포지토리 메소드에 선언하면 (메소드, 파라미터)를 키로 조회 결과를 메모리에 보관한다. <br/>
+ * 의존하는 테이블에 JPA를 통한 쓰기(insert/update/delete, @Modifying 벌크 연산 포함)가 발생하면 <br/>
+ * 테이블 타임스탬프가 갱신되어 해당 결과는 다음 조회 시점에 무효화된다. <br/>
+ * 주의 : 스칼라, Map, DTO, 프로젝션 조회에만 사용한다. (엔티티는 영속성 컨텍스트에 묶여있으므로 캐시하지 않는다.)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryCache {
+
+    /**
+     * 조회 결과가 의존하는 테이블명 (예: "member", "team") <br/>
+     * 생략시 리포지토리 도메인 타입의 테이블을 사용한다.
+     */
+    String[] tables() default {};
+}
@@ -0,0 +1,91 @@
+package study.datajpa.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.support.EntityTables;
+import study.datajpa.repository.support.RepositoryAdvice;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @QueryCache가 선언된 리포지토리 메소드를 가로채 QueryResultCache를 먼저 확인한다. <br/>
+ * 캐시 대상 메소드가 하나도 없는 리포지토리에는 인터셉터를 붙이지 않는다.
+ */
+@Component
+@Order(100)
+@RequiredArgsConstructor
+public class QueryCacheAdvice implements RepositoryAdvice {
+
+    private final QueryResultCache cache;
+    private final TableWriteTracker tracker;
+    private final EntityManagerFactory emf;
+
+    @Override
+    public MethodInterceptor interceptorFor(RepositoryInformation repositoryInformation) {
+        boolean cached = Arrays.stream(repositoryInformation.getRepositoryInterface().getMethods())
+                .anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, QueryCache.class));
+        if (!cached) {
+            return null;
+        }
+
+        Class<?> domainType = repositoryInformation.getDomainType();
+        Map<Method, Set<String>> tablesByMethod = new ConcurrentHashMap<>();
+
+        return invocation -> {
+            Method method = invocation.getMethod();
+            QueryCache queryCache = AnnotatedElementUtils.findMergedAnnotation(method, QueryCache.class);
+            if (queryCache == null) {
+                return invocation.proceed();
+            }
+
+            Set<String> tables = tablesByMethod.computeIfAbsent(method, m -> queryCache.tables().length == 0
+                    ? EntityTables.of(emf, domainType)
+                    : normalize(queryCache.tables()));
+            List<Object> key = new ArrayList<>(invocation.getArguments().length + 1);
+            key.add(method);
+            key.addAll(Arrays.asList(invocation.getArguments()));
+
+            QueryResultCache.Entry entry = cache.get(key);
+            if (entry != null) {
+                return entry.getValue();
+            }
+
+            long stamp = tracker.now(); // 쿼리 실행 전에 읽어야 실행 도중의 쓰기를 놓치지 않는다.
+            Object result = invocation.proceed();
+            if (tracker.isCurrentTransactionWriting() || containsEntity(result)) {
+                cache.reject();
+                return result;
+            }
+            return cache.put(key, tables, stamp, result);
+        };
+    }
+
+    private static Set<String> normalize(String[] tables) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String table : tables) {
+            result.add(TableWriteTracker.normalize(table));
+        }
+        return result;
+    }
+
+    private static boolean containsEntity(Object result) {
+        Object sample = result;
+        if (result instanceof Optional) {
+            sample = ((Optional<?>) result).orElse(null);
+        } else if (result instanceof Collection) {
+            Iterator<?> iterator = ((Collection<?>) result).iterator();
+            sample = iterator.hasNext() ? iterator.next() : null;
+        }
+        return sample instanceof HibernateProxy
+                || (sample != null && sample.getClass().isAnnotationPresent(Entity.class));
+    }
+}
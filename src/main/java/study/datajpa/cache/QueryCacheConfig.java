@@ -0,0 +1,36 @@
+package study.datajpa.cache;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * [쿼리 결과 캐시 설정] <br/>
+ * datajpa.query-cache.max-entries : 보관할 최대 쿼리 결과 수 (LRU) <br/>
+ * datajpa.query-cache.max-rows : 결과 하나당 최대 row 수 (초과하면 적재하지 않는다.)
+ */
+@Configuration
+public class QueryCacheConfig {
+
+    @Bean
+    public TableWriteTracker tableWriteTracker() {
+        return new TableWriteTracker();
+    }
+
+    @Bean
+    public QueryResultCache queryResultCache(TableWriteTracker tableWriteTracker,
+                                             @Value("${datajpa.query-cache.max-entries:1000}") int maxEntries,
+                                             @Value("${datajpa.query-cache.max-rows:10000}") int maxRows) {
+        return new QueryResultCache(tableWriteTracker, maxEntries, maxRows);
+    }
+
+    /**
+     * Hibernate가 실행하는 SQL을 TableWriteTracker가 먼저 확인하도록 등록한다.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer tableWriteTrackerCustomizer(TableWriteTracker tableWriteTracker) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, tableWriteTracker);
+    }
+}
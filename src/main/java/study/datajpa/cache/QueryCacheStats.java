@@ -0,0 +1,28 @@
+package study.datajpa.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 쿼리 결과 캐시 통계 스냅샷
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class QueryCacheStats {
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final long evictions;      // 최대 엔트리 수 초과로 밀려난 수
+    private final long invalidations;  // 테이블 쓰기로 무효화된 수
+    private final long rejections;     // 크기 제한, 엔티티 결과 등으로 적재하지 않은 수
+    private final int size;
+    private final int maxEntries;
+
+    /** 적중률 (조회가 없으면 0) */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
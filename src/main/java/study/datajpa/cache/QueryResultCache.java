@@ -0,0 +1,125 @@
+package study.datajpa.cache;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * [쿼리 결과 저장소] <br/>
+ * LRU(access-order LinkedHashMap)로 최대 엔트리 수를 제한하고, <br/>
+ * 엔트리마다 적재 시점의 논리 시각과 의존 테이블을 함께 보관한다. <br/>
+ * 조회 시점에 의존 테이블의 타임스탬프가 적재 시각보다 크면 무효화하고 miss로 처리한다.
+ */
+public class QueryResultCache {
+
+    private final TableWriteTracker tracker;
+    private final int maxEntries;
+    private final int maxRows;
+    private final LinkedHashMap<Object, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public QueryResultCache(TableWriteTracker tracker, int maxEntries, int maxRows) {
+        this.tracker = tracker;
+        this.maxEntries = maxEntries;
+        this.maxRows = maxRows;
+        this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > QueryResultCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 유효한 엔트리를 찾으면 반환하고, 없거나 무효화되었으면 null을 반환한다.
+     */
+    public Entry get(Object key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && !tracker.isUnchangedSince(entry.tables, entry.stamp)) {
+                entries.remove(key);
+                invalidations.increment();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * 조회 결과 적재 <br/>
+     * stamp는 쿼리 실행 전에 읽은 논리 시각이다. 쿼리 도중 쓰기가 끼어들었다면 다음 조회에서 무효화된다.
+     * @return 실제로 보관된 값 (컬렉션은 읽기 전용 복사본)
+     */
+    public Object put(Object key, Collection<String> tables, long stamp, Object value) {
+        if (value instanceof Collection && ((Collection<?>) value).size() > maxRows) {
+            rejections.increment();
+            return value;
+        }
+        Object stored = readOnly(value);
+        synchronized (entries) {
+            entries.put(key, new Entry(stored, tables, stamp));
+        }
+        puts.increment();
+        return stored;
+    }
+
+    public void reject() {
+        rejections.increment();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public QueryCacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new QueryCacheStats(hits.sum(), misses.sum(), puts.sum(), evictions.sum(),
+                invalidations.sum(), rejections.sum(), size, maxEntries);
+    }
+
+    private static Object readOnly(Object value) {
+        if (value instanceof List) {
+            return Collections.unmodifiableList(new ArrayList<>((List<?>) value));
+        }
+        if (value instanceof Set) {
+            return Collections.unmodifiableSet(new LinkedHashSet<>((Set<?>) value));
+        }
+        return value;
+    }
+
+    public static final class Entry {
+        private final Object value;
+        private final Collection<String> tables;
+        private final long stamp;
+
+        private Entry(Object value, Collection<String> tables, long stamp) {
+            this.value = value;
+            this.tables = tables;
+            this.stamp = stamp;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package study.datajpa.cache;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * [테이블 타임스탬프] <br/>
+ * Hibernate가 실행하는 모든 SQL을 StatementInspector로 확인하여 쓰기 대상 테이블의 타임스탬프를 갱신한다. <br/>
+ * 엔티티 persist/변경감지/remove 뿐만 아니라 JPQL, 네이티브 벌크 연산도 SQL을 거치므로 함께 감지된다. <br/>
+ * 트랜잭션 안에서 쓰기가 발생하면 커밋/롤백 이후에 한번 더 타임스탬프를 갱신한다. <br/>
+ * (트랜잭션 도중 다른 스레드가 커밋 전 데이터를 기준으로 채운 캐시를 무효화하기 위함)
+ */
+public class TableWriteTracker implements StatementInspector {
+
+    private static final Pattern WRITE_STATEMENT = Pattern.compile(
+            "^\\s*(?:insert\\s+into|update|delete\\s+from|delete|merge\\s+into)\\s+([\\w.\"`]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    /** 단조 증가하는 논리 시계 (벽시계는 같은 밀리초에 읽기/쓰기가 겹칠 수 있다.) */
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    @Override
+    public String inspect(String sql) {
+        Matcher matcher = WRITE_STATEMENT.matcher(sql);
+        if (matcher.find()) {
+            markWritten(matcher.group(1));
+        }
+        return sql;
+    }
+
+    /**
+     * 테이블 쓰기 기록 <br/>
+     * 트랜잭션 동기화가 활성화되어 있으면 트랜잭션 종료 시점에 다시 한번 기록한다.
+     */
+    @SuppressWarnings("unchecked")
+    public void markWritten(String table) {
+        String normalized = normalize(table);
+        touch(normalized);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<String> written = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (written == null) {
+            Set<String> tables = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, tables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TableWriteTracker.this);
+                    tables.forEach(TableWriteTracker.this::touch);
+                }
+            });
+            written = tables;
+        }
+        written.add(normalized);
+    }
+
+    /** 현재 트랜잭션에서 쓰기가 발생했는지 여부 (커밋 전 데이터는 캐시에 적재하지 않는다.) */
+    public boolean isCurrentTransactionWriting() {
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+
+    /** 조회 시작 시점의 논리 시각 */
+    public long now() {
+        return clock.get();
+    }
+
+    /** stamp 이후로 tables 중 어느 테이블에도 쓰기가 없었다면 true */
+    public boolean isUnchangedSince(Collection<String> tables, long stamp) {
+        for (String table : tables) {
+            if (lastWrites.getOrDefault(table, 0L) > stamp) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void touch(String table) {
+        lastWrites.put(table, clock.incrementAndGet());
+    }
+
+    /** "PUBLIC"."MEMBER" → member */
+    static String normalize(String table) {
+        String name = table.replace("\"", "").replace("`", "");
+        int dot = name.lastIndexOf('.');
+        if (dot >= 0) {
+            name = name.substring(dot + 1);
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.diagnostics.IndexAdvice;
+import study.datajpa.diagnostics.IndexAdvisor;
+
+import java.util.List;
+
+/**
+ * 인덱스 진단 결과 조회 <br/>
+ * url : /diagnostics/index-advice (지금까지 실행된 select 문 기준)
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.index-advisor.enabled", havingValue = "true")
+public class IndexAdvisorController {
+    private final IndexAdvisor indexAdvisor;
+
+    @GetMapping("/diagnostics/index-advice")
+    public List<IndexAdvice> indexAdvice() {
+        return indexAdvisor.analyze();
+    }
+
+    @PostMapping("/diagnostics/index-advice/reset")
+    public void reset() {
+        indexAdvisor.reset();
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.diagnostics.LazyLoadGuard;
+import study.datajpa.diagnostics.LazyLoadViolation;
+
+import java.util.List;
+
+/**
+ * 트랜잭션 밖 지연 로딩 목록 (엔드포인트, 대상, 횟수) <br/>
+ * url : /diagnostics/lazy-loads
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.lazy-load-guard.enabled", havingValue = "true")
+public class LazyLoadGuardController {
+    private final LazyLoadGuard lazyLoadGuard;
+
+    @GetMapping("/diagnostics/lazy-loads")
+    public List<LazyLoadViolation> lazyLoads() {
+        return lazyLoadGuard.violations();
+    }
+
+    @PostMapping("/diagnostics/lazy-loads/reset")
+    public void reset() {
+        lazyLoadGuard.reset();
+    }
+}
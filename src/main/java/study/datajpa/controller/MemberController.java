@@ -5,27 +5,40 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpecification;
+import study.datajpa.repository.support.FetchPlan;
+import study.datajpa.repository.support.KeysetPosition;
+import study.datajpa.repository.support.KeysetWindow;
+import study.datajpa.search.UsernameMatch;
+import study.datajpa.search.UsernamePrefixIndex;
 
-import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
-    private final MemberRepository memberRepository;
+    /** 클라이언트가 expand 파라미터로 선택할 수 있는 연관관계 */
+    private static final Set<String> EXPANDABLE = Collections.singleton("team");
 
-    @PostConstruct
-    public void init() {
-        for (int i = 0; i < 300 ; i++) {
-//            memberRepository.save(new Member("user"+i, i));
-        }
-    }
+    private static final int MAX_AUTOCOMPLETE = 50;
+    private static final int MAX_SEARCH_SIZE = 300;
+
+    private final MemberRepository memberRepository;
+    private final UsernamePrefixIndex usernamePrefixIndex;
 
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
@@ -33,6 +46,31 @@ public class MemberController {
         return member.getUsername();
     }
 
+    /**
+     * username 자동완성 <br/>
+     * url : /members/autocomplete?prefix=user&limit=10 <br/>
+     * DB 조회 없이 메모리 접두사 인덱스에서 username 순으로 최대 limit(최대 50)개를 반환한다.
+     */
+    @GetMapping("/members/autocomplete")
+    public List<UsernameMatch> autocomplete(@RequestParam("prefix") String prefix,
+                                            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return usernamePrefixIndex.search(prefix, Math.min(limit, MAX_AUTOCOMPLETE));
+    }
+
+    /**
+     * 동적 Fetch Plan 단건 조회 <br/>
+     * url 1 : /members/1/detail → member만 조회 (teamName = null) <br/>
+     * url 2 : /members/1/detail?expand=team → member와 team을 fetch join으로 한번에 조회
+     */
+    @GetMapping("/members/{id}/detail")
+    public MemberDto findMemberDetail(@PathVariable("id") Long id,
+                                      @RequestParam(value = "expand", required = false) List<String> expand) {
+        FetchPlan fetchPlan = fetchPlan(expand);
+        Member member = memberRepository.findById(id, fetchPlan)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return new MemberDto(member, fetchPlan.includes("team"));
+    }
+
     /**
      * 도메인 클래스 컨버터 적용 <br/>
      *
@@ -58,11 +96,15 @@ public class MemberController {
      * 실제로는 PageRequest 객체를 생성한다. <br/>
      * 바인딩 될 때 pageable이 있으면 PageRequest 객체를 생성하고 값을 채운뒤 <br/>
      * pageable에 Injection(주입) 해준다 <br/>
+     * deferred=true : id만 정렬/페이징한 뒤 엔티티를 id로 조회한다. (깊은 page 조회) <br/>
      * @return
      */
     @GetMapping("/members")
-    public Page<Member> list(Pageable pageable) {
-        Page<Member> page = memberRepository.findAll(pageable);
+    public Page<Member> list(Pageable pageable,
+                             @RequestParam(value = "deferred", defaultValue = "false") boolean deferred) {
+        Page<Member> page = deferred
+                ? memberRepository.findAllDeferred(pageable, FetchPlan.NONE)
+                : memberRepository.findAll(pageable);
         return page;
     }
 
@@ -113,17 +155,61 @@ public class MemberController {
     }
 
     /**
-     * 페이지 내용 DTO로 변환
+     * 페이지 내용 DTO로 변환 <br/>
+     * url 1 : /members5 → member만 조회 (teamName = null, team 지연로딩 없음) <br/>
+     * url 2 : /members5?expand=team → team을 fetch join (count 쿼리는 member만 조회) <br/>
+     * url 3 : /members5?page=5000&sort=id,desc&deferred=true → id만 정렬/페이징한 뒤 해당 id의 회원만 조회
      * @param pageable
+     * @param expand 함께 조회할 연관관계
+     * @param deferred Deferred Join 페이징 사용 여부
      * @return
      */
     @GetMapping("/members5")
-    public Page<MemberDto> list5(Pageable pageable) {
-        Page<Member> page = memberRepository.findAll(pageable);
+    public Page<MemberDto> list5(Pageable pageable,
+                                 @RequestParam(value = "expand", required = false) List<String> expand,
+                                 @RequestParam(value = "deferred", defaultValue = "false") boolean deferred) {
+        FetchPlan fetchPlan = fetchPlan(expand);
+        Page<Member> page = deferred
+                ? memberRepository.findAllDeferred(pageable, fetchPlan)
+                : memberRepository.findAll(pageable, fetchPlan);
         //DTO로 변환
 //        Page<MemberDto> pageDto = page.map(member -> new MemberDto(member.getId(), member.getUsername(), null));
 //        Page<MemberDto> pageDto = page.map(member -> new MemberDto(member)); //DTO에 선언한 객체타입 생성자를 사용한다.
-        Page<MemberDto> pageDto = page.map(MemberDto::new); //위 코드를 메서드 레퍼런스로 변환한다.
+//        Page<MemberDto> pageDto = page.map(MemberDto::new); //위 코드를 메서드 레퍼런스로 변환한다.
+        boolean withTeam = fetchPlan.includes("team");
+        Page<MemberDto> pageDto = page.map(member -> new MemberDto(member, withTeam)); //조회한 만큼만 DTO에 담는다.
         return pageDto;
     }
+
+    /**
+     * 회원 검색 - keyset 스크롤 <br/>
+     * url 1 : /members/search?teamName=teamA&sort=age,desc&size=20 <br/>
+     * url 2 : /members/search?teamName=teamA&sort=age,desc&size=20&after=30&after=17 → 응답 next.values를 그대로 after로 넘긴다. <br/>
+     * id, username, team.name 컬럼만 조회하고 offset, count 쿼리가 없다. (정렬 마지막에 id가 붙는다.)
+     */
+    @GetMapping("/members/search")
+    public KeysetWindow<MemberDto> search(@RequestParam(value = "username", required = false) String username,
+                                          @RequestParam(value = "teamName", required = false) String teamName,
+                                          @RequestParam(value = "after", required = false) List<String> after,
+                                          @RequestParam(value = "size", defaultValue = "20") int size,
+                                          Sort sort) {
+        Specification<Member> spec = Specification.where(username == null ? null : MemberSpecification.username(username))
+                .and(MemberSpecification.teamName(teamName));
+        try {
+            return memberRepository.query(spec)
+                    .sortBy(sort)
+                    .as(MemberDto.class)
+                    .scroll(KeysetPosition.after(after), Math.min(size, MAX_SEARCH_SIZE));
+        } catch (IllegalArgumentException | PropertyReferenceException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    private FetchPlan fetchPlan(List<String> expand) {
+        try {
+            return FetchPlan.of(EXPANDABLE, expand);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.metrics.RepositoryMethodStats;
+import study.datajpa.metrics.RepositoryMetrics;
+
+import java.util.List;
+
+/**
+ * 리포지토리 메소드별 통계 조회 <br/>
+ * url : /diagnostics/repository-metrics
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.repository-metrics.enabled", havingValue = "true")
+public class RepositoryMetricsController {
+    private final RepositoryMetrics repositoryMetrics;
+
+    @GetMapping("/diagnostics/repository-metrics")
+    public List<RepositoryMethodStats> repositoryMetrics() {
+        return repositoryMetrics.snapshot();
+    }
+
+    @PostMapping("/diagnostics/repository-metrics/reset")
+    public void reset() {
+        repositoryMetrics.reset();
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.diagnostics.RequestStats;
+import study.datajpa.diagnostics.RequestStatsRecorder;
+
+import java.util.List;
+
+/**
+ * 최근 요청별 Hibernate 세션 통계 <br/>
+ * url 1 : /diagnostics/requests <br/>
+ * url 2 : /diagnostics/requests?minElapsedMs=100 → 100ms 이상 걸린 요청만
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.request-stats.enabled", havingValue = "true")
+public class RequestStatsController {
+    private final RequestStatsRecorder requestStatsRecorder;
+
+    @GetMapping("/diagnostics/requests")
+    public List<RequestStats> requests(@RequestParam(value = "minElapsedMs", defaultValue = "0") double minElapsedMs) {
+        return requestStatsRecorder.slowerThan(minElapsedMs);
+    }
+}
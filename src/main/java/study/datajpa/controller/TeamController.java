@@ -0,0 +1,54 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import study.datajpa.dto.TeamRemovalDto;
+import study.datajpa.dto.TeamStatsDto;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.stats.TeamStatsAggregate;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+    private final TeamStatsAggregate teamStatsAggregate;
+    private final TeamRepository teamRepository;
+
+    /**
+     * 팀 삭제 <br/>
+     * reassignTo가 있으면 회원을 그 팀으로 옮기고, 없으면 회원도 삭제한다. (chunkSize명 단위 벌크 연산)
+     */
+    @DeleteMapping("/teams/{id}")
+    public TeamRemovalDto remove(@PathVariable("id") Long id,
+                                 @RequestParam(value = "reassignTo", required = false) Long reassignTo,
+                                 @RequestParam(value = "chunkSize", defaultValue = "10000") int chunkSize) {
+        return teamRepository.removeTeam(id, reassignTo, chunkSize);
+    }
+
+    /**
+     * 팀 통계 (회원 수, 나이대 히스토그램) <br/>
+     * 메모리 집계에서 바로 반환한다. (Team.members 로딩, GROUP BY 쿼리 없음)
+     */
+    @GetMapping("/teams/{id}/stats")
+    public TeamStatsDto stats(@PathVariable("id") Long id) {
+        return teamStatsAggregate.get(id);
+    }
+
+    @GetMapping("/teams/stats")
+    public List<TeamStatsDto> allStats() {
+        return teamStatsAggregate.getAll();
+    }
+
+    /** 전체 재구성 (member 테이블 GROUP BY) */
+    @PostMapping("/teams/stats/rebuild")
+    public void rebuildStats() {
+        teamStatsAggregate.rebuild();
+    }
+
+    /** 정합성 검사 : 어긋난 팀 목록 (비어있으면 정상) */
+    @GetMapping("/teams/stats/check")
+    public List<String> checkStats() {
+        return teamStatsAggregate.check();
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa.diagnostics;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청을 처리하는 엔드포인트를 LazyLoadGuard에 알린다. <br/>
+ * 예) GET /members/{id}/detail (MemberController#findMemberDetail) <br/>
+ * JSON 직렬화는 afterCompletion 전에 끝나므로 직렬화 중의 지연 로딩도 같은 엔드포인트로 기록된다.
+ */
+public class EndpointTrackingInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        StringBuilder endpoint = new StringBuilder(request.getMethod()).append(' ')
+                .append(pattern != null ? pattern : request.getRequestURI());
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            endpoint.append(" (").append(handlerMethod.getBeanType().getSimpleName())
+                    .append('#').append(handlerMethod.getMethod().getName()).append(')');
+        }
+        LazyLoadGuard.enter(endpoint.toString());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        LazyLoadGuard.exit();
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.diagnostics;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 인덱스 진단 결과 한 건 <br/>
+ * EXPLAIN 결과 풀스캔(tableScan)인 테이블과 조건/정렬 컬럼으로 만든 인덱스 제안
+ */
+@Getter
+@ToString
+public class IndexAdvice {
+    private final String sql;
+    private final String table;
+    private final List<String> columns;
+    private final String suggestion;
+    private final String plan;
+
+    public IndexAdvice(String sql, String table, List<String> columns, String plan) {
+        this.sql = sql;
+        this.table = table;
+        this.columns = columns;
+        this.plan = plan;
+        this.suggestion = "create index idx_" + table + "_" + String.join("_", columns)
+                + " on " + table + " (" + String.join(", ", columns) + ")";
+    }
+}
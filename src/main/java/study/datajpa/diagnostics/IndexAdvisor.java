@@ -0,0 +1,179 @@
+package study.datajpa.diagnostics;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * [인덱스 진단기] <br/>
+ * P6Spy 이벤트로 실행된 select 문을 모아두었다가 analyze() 호출 시 H2 EXPLAIN을 실행한다. <br/>
+ * 실행 계획에 tableScan이 있는 테이블은 where 조건(등치 → 범위 순)과 order by 컬럼으로 인덱스를 제안한다. <br/>
+ * datajpa.index-advisor.enabled=true 일때만 등록된다. (개발/테스트 환경용)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.index-advisor.enabled", havingValue = "true")
+public class IndexAdvisor extends JdbcEventListener {
+
+    private static final Pattern TABLE_ALIAS = Pattern.compile(
+            "\\b(?:from|join)\\s+(\\w+)(?:\\s+(?:as\\s+)?(?!(?:where|left|right|inner|outer|cross|join|on|order|group|limit|offset|fetch|for)\\b)(\\w+))?",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHERE_CLAUSE = Pattern.compile(
+            "\\bwhere\\b(.*?)(?:\\border\\s+by\\b|\\bgroup\\s+by\\b|\\blimit\\b|\\boffset\\b|\\bfetch\\b|\\bfor\\s+update\\b|$)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern PREDICATE = Pattern.compile(
+            "(?:(\\w+)\\.)?([a-z_]\\w*)\\s*(=|<>|!=|>=|<=|>|<|\\bin\\b|\\blike\\b|\\bbetween\\b|\\bis\\b)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_BY = Pattern.compile(
+            "\\border\\s+by\\b(.*?)(?:\\blimit\\b|\\boffset\\b|\\bfetch\\b|\\bfor\\s+update\\b|$)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern COLUMN = Pattern.compile("^\\s*(?:(\\w+)\\.)?(\\w+)");
+    private static final Pattern TABLE_SCAN = Pattern.compile("(\\w+)\"?\\.tableScan");
+
+    private final DataSource dataSource;
+    private final int maxStatements;
+
+    /** 준비된 SQL(?) → 마지막으로 실행된 값이 채워진 SQL */
+    private final ConcurrentMap<String, String> statements = new ConcurrentHashMap<>();
+
+    public IndexAdvisor(@Lazy DataSource dataSource,
+                        @Value("${datajpa.index-advisor.max-statements:500}") int maxStatements) {
+        this.dataSource = dataSource;
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        if (e != null || sql == null || !sql.trim().regionMatches(true, 0, "select", 0, 6)) {
+            return;
+        }
+        if (statements.size() < maxStatements || statements.containsKey(sql)) {
+            statements.put(sql, statementInformation.getSqlWithValues());
+        }
+    }
+
+    /**
+     * 모아둔 select 문 전체를 EXPLAIN 하여 풀스캔 + 인덱스 제안 목록을 반환한다.
+     */
+    public List<IndexAdvice> analyze() {
+        List<IndexAdvice> advices = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (!connection.getMetaData().getDatabaseProductName().toUpperCase(Locale.ROOT).contains("H2")) {
+                log.warn("index advisor supports H2 EXPLAIN only");
+                return advices;
+            }
+            for (Map.Entry<String, String> entry : statements.entrySet()) {
+                String plan = explain(statement, entry.getValue());
+                if (plan != null) {
+                    advices.addAll(advise(entry.getKey(), plan));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("index advisor failed", e);
+        }
+        return advices;
+    }
+
+    /** 모아둔 select 문 (준비된 SQL) */
+    public Set<String> recordedStatements() {
+        return Collections.unmodifiableSet(statements.keySet());
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    private static String explain(Statement statement, String sql) {
+        try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        } catch (SQLException e) {
+            log.debug("EXPLAIN failed: {}", sql, e);
+            return null;
+        }
+    }
+
+    /**
+     * 실행 계획에서 풀스캔 테이블을 찾고 SQL의 조건/정렬 컬럼으로 인덱스를 제안한다.
+     */
+    static List<IndexAdvice> advise(String sql, String plan) {
+        Set<String> scanned = new LinkedHashSet<>();
+        Matcher scan = TABLE_SCAN.matcher(plan);
+        while (scan.find()) {
+            scanned.add(scan.group(1).toLowerCase(Locale.ROOT));
+        }
+        if (scanned.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, String> tablesByAlias = new HashMap<>();
+        Matcher alias = TABLE_ALIAS.matcher(sql);
+        while (alias.find()) {
+            String table = alias.group(1).toLowerCase(Locale.ROOT);
+            tablesByAlias.put(table, table);
+            if (alias.group(2) != null) {
+                tablesByAlias.put(alias.group(2).toLowerCase(Locale.ROOT), table);
+            }
+        }
+        String singleTable = new HashSet<>(tablesByAlias.values()).size() == 1
+                ? tablesByAlias.values().iterator().next() : null;
+
+        Map<String, LinkedHashSet<String>> equality = new HashMap<>();
+        Map<String, LinkedHashSet<String>> others = new HashMap<>();
+        Matcher where = WHERE_CLAUSE.matcher(sql);
+        if (where.find()) {
+            Matcher predicate = PREDICATE.matcher(where.group(1));
+            while (predicate.find()) {
+                String table = resolve(tablesByAlias, singleTable, predicate.group(1));
+                if (table != null) {
+                    boolean isEquality = "=".equals(predicate.group(3)) || "in".equalsIgnoreCase(predicate.group(3));
+                    (isEquality ? equality : others).computeIfAbsent(table, t -> new LinkedHashSet<>())
+                            .add(predicate.group(2).toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        Matcher orderBy = ORDER_BY.matcher(sql);
+        if (orderBy.find()) {
+            for (String item : orderBy.group(1).split(",")) {
+                Matcher column = COLUMN.matcher(item);
+                if (column.find()) {
+                    String table = resolve(tablesByAlias, singleTable, column.group(1));
+                    if (table != null) {
+                        others.computeIfAbsent(table, t -> new LinkedHashSet<>())
+                                .add(column.group(2).toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        }
+
+        List<IndexAdvice> advices = new ArrayList<>();
+        for (String table : scanned) {
+            LinkedHashSet<String> columns = new LinkedHashSet<>(equality.getOrDefault(table, new LinkedHashSet<>()));
+            columns.addAll(others.getOrDefault(table, new LinkedHashSet<>()));
+            if (!columns.isEmpty()) { // 조건/정렬이 없는 전체 조회는 풀스캔이 정상이다.
+                advices.add(new IndexAdvice(sql, table, new ArrayList<>(columns), plan));
+            }
+        }
+        return advices;
+    }
+
+    private static String resolve(Map<String, String> tablesByAlias, String singleTable, String alias) {
+        return alias == null ? singleTable : tablesByAlias.get(alias.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,78 @@
+package study.datajpa.diagnostics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * [트랜잭션 밖 지연 로딩 감시] <br/>
+ * OSIV를 끄면(spring.jpa.open-in-view=false) 커넥션은 트랜잭션(쿼리) 동안만 잡히고 <br/>
+ * 컨트롤러, JSON 직렬화 중의 지연 로딩은 원래 LazyInitializationException이 된다. <br/>
+ * 감시 모드에서는 hibernate.enable_lazy_load_no_trans로 로딩을 Hibernate 이벤트까지 가져와 <br/>
+ * 어느 엔드포인트에서 어떤 연관관계를 지연 로딩했는지 기록한다. <br/>
+ * REPORT : 기록 후 로딩한다. (처음 발생한 엔드포인트+대상은 WARN 로그) <br/>
+ * FAIL : 기록 후 LazyLoadOutsideTransactionException (SQL 실행 전) <br/>
+ * 해결 : 해당 엔드포인트의 FetchPlan(expand)이나 fetch join으로 트랜잭션 안에서 함께 조회한다.
+ */
+@Slf4j
+public class LazyLoadGuard {
+
+    public enum Mode { REPORT, FAIL }
+
+    static final String NO_REQUEST = "(no request)";
+    private static final ThreadLocal<String> ENDPOINT = new ThreadLocal<>();
+
+    private final Mode mode;
+    private final ConcurrentMap<String, LazyLoadViolation> violations = new ConcurrentHashMap<>();
+
+    public LazyLoadGuard(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /** 요청 처리 스레드의 엔드포인트 (EndpointTrackingInterceptor) */
+    static void enter(String endpoint) {
+        ENDPOINT.set(endpoint);
+    }
+
+    static void exit() {
+        ENDPOINT.remove();
+    }
+
+    /** 지연 로딩 직전 호출 : 트랜잭션 안이면 정상 */
+    void onLazyLoad(String target) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        String endpoint = ENDPOINT.get() == null ? NO_REQUEST : ENDPOINT.get();
+        long count = violations.computeIfAbsent(endpoint + " " + target, key -> new LazyLoadViolation(endpoint, target))
+                .increment();
+        String message = "lazy load of " + target + " outside transaction at " + endpoint
+                + " - add it to the endpoint's fetch plan";
+        if (mode == Mode.FAIL) {
+            throw new LazyLoadOutsideTransactionException(message);
+        }
+        if (count == 1) {
+            log.warn(message);
+        }
+    }
+
+    /** 기록 목록 (횟수 내림차순) */
+    public List<LazyLoadViolation> violations() {
+        List<LazyLoadViolation> result = new ArrayList<>(violations.values());
+        result.sort(Comparator.comparingLong(LazyLoadViolation::getCount).reversed());
+        return result;
+    }
+
+    public void reset() {
+        violations.clear();
+    }
+}
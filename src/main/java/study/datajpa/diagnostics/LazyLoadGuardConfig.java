@@ -0,0 +1,56 @@
+package study.datajpa.diagnostics;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * [트랜잭션 밖 지연 로딩 감시 설정] <br/>
+ * datajpa.lazy-load-guard.mode : REPORT (기록 후 로딩) / FAIL (예외) <br/>
+ * 감시를 위해 hibernate.enable_lazy_load_no_trans를 켠다. (꺼져 있으면 이벤트 전에 LazyInitializationException이 발생한다.)
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.lazy-load-guard.enabled", havingValue = "true")
+public class LazyLoadGuardConfig implements WebMvcConfigurer {
+
+    private final EntityManagerFactory emf;
+    private final LazyLoadGuard lazyLoadGuard;
+
+    /** EntityManagerFactory 생성 전에 필요하므로 설정 인스턴스 없이 만들 수 있는 static 빈 */
+    @Bean
+    public static HibernatePropertiesCustomizer lazyLoadNoTransCustomizer() {
+        return properties -> properties.put(AvailableSettings.ENABLE_LAZY_LOAD_NO_TRANS, "true");
+    }
+
+    @Bean
+    public static LazyLoadGuard lazyLoadGuard(@Value("${datajpa.lazy-load-guard.mode:REPORT}") LazyLoadGuard.Mode mode) {
+        return new LazyLoadGuard(mode);
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        LazyLoadGuardEventListener listener = new LazyLoadGuardEventListener(lazyLoadGuard);
+        registry.prependListeners(EventType.LOAD, listener);
+        registry.prependListeners(EventType.INIT_COLLECTION, listener);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new EndpointTrackingInterceptor());
+    }
+}
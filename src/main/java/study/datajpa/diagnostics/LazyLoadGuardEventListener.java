@@ -0,0 +1,37 @@
+package study.datajpa.diagnostics;
+
+import org.hibernate.HibernateException;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.internal.util.StringHelper;
+
+/**
+ * 프록시 초기화(IMMEDIATE_LOAD)와 지연 컬렉션 초기화를 LazyLoadGuard에 알린다. <br/>
+ * 기본 리스너보다 앞에 등록되어(prepend) 로딩 SQL 전에 실행된다.
+ */
+public class LazyLoadGuardEventListener implements LoadEventListener, InitializeCollectionEventListener {
+
+    private final LazyLoadGuard guard;
+
+    public LazyLoadGuardEventListener(LazyLoadGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+            guard.onLazyLoad(StringHelper.unqualify(event.getEntityClassName()));
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        String owner = event.getAffectedOwnerEntityName();
+        String role = event.getCollection().getRole();
+        guard.onLazyLoad(owner != null && role != null && role.startsWith(owner + ".")
+                ? StringHelper.unqualify(owner) + role.substring(owner.length())
+                : String.valueOf(role));
+    }
+}
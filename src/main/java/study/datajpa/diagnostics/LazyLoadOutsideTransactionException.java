@@ -0,0 +1,11 @@
+package study.datajpa.diagnostics;
+
+/**
+ * fail 모드에서 트랜잭션 밖 지연 로딩이 일어나면 발생한다. (SQL을 실행하기 전)
+ */
+public class LazyLoadOutsideTransactionException extends IllegalStateException {
+
+    public LazyLoadOutsideTransactionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.diagnostics;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 트랜잭션 밖 지연 로딩 기록 (엔드포인트 + 대상별 누적 횟수)
+ */
+@Getter
+public class LazyLoadViolation {
+    private final String endpoint;
+    private final String target;
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicLong count = new AtomicLong();
+
+    LazyLoadViolation(String endpoint, String target) {
+        this.endpoint = endpoint;
+        this.target = target;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    long increment() {
+        return count.incrementAndGet();
+    }
+}
@@ -0,0 +1,90 @@
+package study.datajpa.diagnostics;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * [요청 하나의 Hibernate 세션 통계] <br/>
+ * 요청 스레드에서만 기록하므로 잠금 없이 누적한다. (완료 후에는 읽기 전용) <br/>
+ * 시간 항목은 ms 단위 합계이다.
+ */
+@Getter
+@ToString
+public class RequestStats {
+    private final String method;
+    private final String uri;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private int status;
+    private double elapsedMs;
+
+    private long entitiesLoaded;       // PostLoad (2차 캐시 적중 포함)
+    private long collectionsFetched;   // 지연 컬렉션 초기화
+    private long flushes;
+    private long flushedEntities;
+    private long flushedCollections;
+    private double flushMs;
+    private long dirtyChecks;
+    private double dirtyCheckMs;
+    private long statements;           // 실행한 JDBC 문 (batch는 1회)
+    private double statementMs;
+    private long connectionsAcquired;
+
+    public RequestStats(String method, String uri) {
+        this.method = method;
+        this.uri = uri;
+    }
+
+    void entityLoaded() {
+        entitiesLoaded++;
+    }
+
+    void collectionFetched() {
+        collectionsFetched++;
+    }
+
+    void flushed(long nanos, int entities, int collections) {
+        flushes++;
+        flushMs += millis(nanos);
+        flushedEntities += entities;
+        flushedCollections += collections;
+    }
+
+    void dirtyChecked(long nanos) {
+        dirtyChecks++;
+        dirtyCheckMs += millis(nanos);
+    }
+
+    void statementExecuted(long nanos) {
+        statements++;
+        statementMs += millis(nanos);
+    }
+
+    void connectionAcquired() {
+        connectionsAcquired++;
+    }
+
+    void complete(int status, long nanos) {
+        this.status = status;
+        this.elapsedMs = millis(nanos);
+    }
+
+    /** 느린 요청 로그용 전체 내역 */
+    public String dump() {
+        return String.format("%s %s -> %d in %.3fms%n" +
+                        "  entities loaded      : %d%n" +
+                        "  collections fetched  : %d%n" +
+                        "  flushes              : %d (%.3fms, entities=%d, collections=%d)%n" +
+                        "  dirty checks         : %d (%.3fms)%n" +
+                        "  statements executed  : %d (%.3fms)%n" +
+                        "  connections acquired : %d",
+                method, uri, status, elapsedMs, entitiesLoaded, collectionsFetched,
+                flushes, flushMs, flushedEntities, flushedCollections,
+                dirtyChecks, dirtyCheckMs, statements, statementMs, connectionsAcquired);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.diagnostics;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * [요청별 세션 통계 설정] <br/>
+ * datajpa.request-stats.ring-size : 보관할 최근 요청 수 <br/>
+ * datajpa.request-stats.slow-threshold-ms : 이 시간 이상 걸린 요청은 전체 내역을 로그로 남긴다.
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.request-stats.enabled", havingValue = "true")
+public class RequestStatsConfig {
+
+    private final EntityManagerFactory emf;
+
+    /**
+     * 세션마다 RequestStatsSessionListener를 붙인다. <br/>
+     * (EntityManagerFactory 생성 전에 필요하므로 설정 인스턴스 없이 만들 수 있는 static 빈)
+     */
+    @Bean
+    public static HibernatePropertiesCustomizer requestStatsSessionListenerCustomizer() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                RequestStatsSessionListener.class.getName());
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        RequestStatsEventListener listener = new RequestStatsEventListener();
+        registry.appendListeners(EventType.POST_LOAD, listener);
+        registry.appendListeners(EventType.INIT_COLLECTION, listener);
+    }
+}
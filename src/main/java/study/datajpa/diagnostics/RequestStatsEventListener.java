@@ -0,0 +1,29 @@
+package study.datajpa.diagnostics;
+
+import org.hibernate.HibernateException;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * 엔티티 로딩, 지연 컬렉션 초기화를 현재 요청 통계에 더한다. (SessionEventListener에는 없는 항목)
+ */
+public class RequestStatsEventListener implements PostLoadEventListener, InitializeCollectionEventListener {
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestStats stats = RequestStatsRecorder.current();
+        if (stats != null) {
+            stats.entityLoaded();
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        RequestStats stats = RequestStatsRecorder.current();
+        if (stats != null) {
+            stats.collectionFetched();
+        }
+    }
+}
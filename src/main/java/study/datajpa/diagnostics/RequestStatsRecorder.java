@@ -0,0 +1,96 @@
+package study.datajpa.diagnostics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * [요청별 Hibernate 세션 통계] <br/>
+ * 요청마다 RequestStats를 요청 스레드에 묶고, 끝나면 최근 ringSize개를 보관하는 링 버퍼에 넣는다. <br/>
+ * slowThresholdMs 이상 걸린 요청은 전체 내역(RequestStats.dump())을 WARN 로그로 남긴다. <br/>
+ * OSIV가 켜져 있으면 뷰 렌더링(JSON 직렬화) 중의 지연 로딩도 포함된다. <br/>
+ * datajpa.request-stats.enabled=true 일때만 등록된다.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "datajpa.request-stats.enabled", havingValue = "true")
+public class RequestStatsRecorder extends OncePerRequestFilter {
+
+    private static final ThreadLocal<RequestStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicReferenceArray<RequestStats> ring;
+    private final AtomicLong sequence = new AtomicLong();
+    private final long slowThresholdNanos;
+
+    public RequestStatsRecorder(@Value("${datajpa.request-stats.ring-size:256}") int ringSize,
+                                @Value("${datajpa.request-stats.slow-threshold-ms:500}") long slowThresholdMs) {
+        this.ring = new AtomicReferenceArray<>(ringSize);
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000;
+    }
+
+    /** 현재 요청 통계 (요청 스레드가 아니면 null) */
+    static RequestStats current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String uri = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        RequestStats stats = new RequestStats(request.getMethod(), uri);
+        CURRENT.set(stats);
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            CURRENT.remove();
+            stats.complete(response.getStatus(), elapsed);
+            ring.set((int) (sequence.getAndIncrement() % ring.length()), stats);
+            if (elapsed >= slowThresholdNanos) {
+                log.warn("slow request\n{}", stats.dump());
+            }
+        }
+    }
+
+    /** 최근 요청 통계 (최신순) */
+    public List<RequestStats> recent() {
+        List<RequestStats> result = new ArrayList<>();
+        long last = sequence.get();
+        for (long i = last - 1; i >= 0 && i >= last - ring.length(); i--) {
+            RequestStats stats = ring.get((int) (i % ring.length()));
+            if (stats != null) {
+                result.add(stats);
+            }
+        }
+        return result;
+    }
+
+    /** 최근 요청 중 minElapsedMs 이상 걸린 요청 (최신순) */
+    public List<RequestStats> slowerThan(double minElapsedMs) {
+        List<RequestStats> result = new ArrayList<>();
+        for (RequestStats stats : recent()) {
+            if (stats.getElapsedMs() >= minElapsedMs) {
+                result.add(stats);
+            }
+        }
+        return result;
+    }
+}
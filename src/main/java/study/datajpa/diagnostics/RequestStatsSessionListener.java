@@ -0,0 +1,76 @@
+package study.datajpa.diagnostics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * [세션 이벤트 → 현재 요청 통계] <br/>
+ * hibernate.session.events.auto로 세션마다 하나씩 생성된다. (RequestStatsConfig) <br/>
+ * 요청 스레드가 아닌 곳(스케줄러 등)에서 열린 세션은 기록하지 않는다.
+ */
+public class RequestStatsSessionListener extends BaseSessionEventListener {
+
+    private long flushStart;
+    private long dirtyCheckStart;
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        RequestStats stats = RequestStatsRecorder.current();
+        if (stats != null) {
+            stats.connectionAcquired();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestStats stats = RequestStatsRecorder.current();
+        if (stats != null) {
+            stats.statementExecuted(System.nanoTime() - statementStart);
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestStats stats = RequestStatsRecorder.current();
+        if (stats != null) {
+            stats.statementExecuted(System.nanoTime() - batchStart);
+        }
+    }
+
+    @Override
+    public void flushStart() {
+        flushStart = System.nanoTime();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestStats stats = RequestStatsRecorder.current();
+        if (stats != null) {
+            stats.flushed(System.nanoTime() - flushStart, numberOfEntities, numberOfCollections);
+        }
+    }
+
+    @Override
+    public void dirtyCalculationStart() {
+        dirtyCheckStart = System.nanoTime();
+    }
+
+    @Override
+    public void dirtyCalculationEnd(boolean dirty) {
+        RequestStats stats = RequestStatsRecorder.current();
+        if (stats != null) {
+            stats.dirtyChecked(System.nanoTime() - dirtyCheckStart);
+        }
+    }
+}
@@ -21,4 +21,13 @@ public class MemberDto {
         this.username = m.getUsername();
         this.teamName = m.getTeam().getName();
     }
+
+    /**
+     * Fetch Plan에 team이 없으면 team을 건드리지 않는다. (지연로딩 쿼리 방지)
+     */
+    public MemberDto(Member m, boolean withTeam) {
+        this.id = m.getId();
+        this.username = m.getUsername();
+        this.teamName = withTeam && m.getTeam() != null ? m.getTeam().getName() : null;
+    }
 }
@@ -0,0 +1,24 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 팀 삭제 결과 <br/>
+ * reassignedTo가 null이면 회원도 함께 삭제된 것이다.
+ */
+@Getter
+@ToString
+public class TeamRemovalDto {
+    private final Long teamId;
+    private final Long reassignedTo;
+    private final long memberCount; // 이동(또는 삭제)된 회원 수
+    private final int chunks; // 실행한 벌크 update/delete 수
+
+    public TeamRemovalDto(Long teamId, Long reassignedTo, long memberCount, int chunks) {
+        this.teamId = teamId;
+        this.reassignedTo = reassignedTo;
+        this.memberCount = memberCount;
+        this.chunks = chunks;
+    }
+}
@@ -0,0 +1,22 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 팀 통계 조회 결과 <br/>
+ * ageHistogram[i] : 나이 i*10 ~ i*10+9 회원 수 (마지막 칸은 100세 이상)
+ */
+@Getter
+@ToString
+public class TeamStatsDto {
+    private final Long teamId;
+    private final long memberCount;
+    private final long[] ageHistogram;
+
+    public TeamStatsDto(Long teamId, long memberCount, long[] ageHistogram) {
+        this.teamId = teamId;
+        this.memberCount = memberCount;
+        this.ageHistogram = ageHistogram;
+    }
+}
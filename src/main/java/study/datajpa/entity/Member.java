@@ -1,6 +1,8 @@
 package study.datajpa.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import study.datajpa.search.UsernameIndexListener;
 
 import javax.persistence.*;
 
@@ -8,6 +10,11 @@ import javax.persistence.*;
 @Getter @Setter
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
+@Table(indexes = { // MemberRepository 조회 조건 컬럼 (ddl-auto로 스키마 생성시 함께 생성된다.)
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age"),
+        @Index(name = "idx_member_team_id", columnList = "team_id")
+})
 @NamedQuery( // namedQuery 생성
         name = "Member.findByUsername",
         query = "select m from Member m where m.username = :username"
@@ -16,6 +23,7 @@ import javax.persistence.*;
         name = "Member.all", //EntityGrraph를 호출할 이름을 미리 지정한다.
         attributeNodes = @NamedAttributeNode("team") // attributePaths값을 적용한다.
 )
+@EntityListeners(UsernameIndexListener.class) // username 자동완성 인덱스 동기화 (상위 클래스의 Auditing 리스너에 추가된다.)
 public class Member extends SpringJpaBaseEntity{
 //public class Member extends JpaBaseEntity{
     @Id
@@ -25,6 +33,11 @@ public class Member extends SpringJpaBaseEntity{
     private String username;
     private int age;
 
+    /**
+     * 엔티티를 그대로 반환하는 엔드포인트(/members 등)에서 직렬화하지 않는다. <br/>
+     * (OSIV off : 직렬화 중 지연 로딩 방지) team이 필요하면 FetchPlan으로 조회해 DTO로 반환한다.
+     */
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
@@ -64,7 +77,10 @@ public class Member extends SpringJpaBaseEntity{
 
     /**
      * 양방향 연관관계 편의 메소드 <br/>
-     * Member의 team을 초기화함과 동시에 Team의 members에 현재 Member추가
+     * Member의 team을 초기화함과 동시에 Team의 members에 현재 Member추가 <br/>
+     * 영속 상태 team의 members가 아직 초기화되지 않았으면 add는 큐에 쌓일 뿐 조회하지 않는다. (Team.members 참고) <br/>
+     * 향상된 빌드도 같다. (연관관계 관리를 끄므로 대입만으로는 team.members가 바뀌지 않는다. build.gradle 참고) <br/>
+     * 단, 준영속 team은 초기화할 수 없으므로 영속성 컨텍스트 안에서 호출해야 한다.
      * @param team
      */
     private void changeTeam(Team team) {
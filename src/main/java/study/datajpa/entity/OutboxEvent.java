@@ -0,0 +1,32 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * [Transactional Outbox] <br/>
+ * SpringJpaBaseEntity 하위 엔티티의 변경 이벤트 <br/>
+ * 엔티티 변경과 같은 트랜잭션에서 JDBC로 insert 되므로(OutboxEventListener) 커밋된 변경만 남는다. <br/>
+ * OutboxRelay가 id 순으로 꺼내 전달한 뒤 삭제한다.
+ */
+@Entity
+@Getter
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // JDBC insert에서 id를 생략할 수 있도록 auto-increment
+    @Column(name = "outbox_event_id")
+    private Long id;
+    private String aggregateType; // Member, Team
+    private String aggregateId;
+    private String eventType; // CREATED, UPDATED, DELETED
+    @Column(length = 4000)
+    private String payload; // 변경 후(삭제는 삭제 직전) 속성 JSON
+    private LocalDateTime occurredAt;
+}
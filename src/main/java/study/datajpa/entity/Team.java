@@ -4,6 +4,8 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -12,6 +14,7 @@ import java.util.List;
 @Entity
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name")) // MemberSpecification.teamName 조건
 public class Team {
     @Id
     @GeneratedValue
@@ -19,7 +22,13 @@ public class Team {
     private Long id;
     private String name;
 
+    /**
+     * EXTRA : size(), contains(), isEmpty()를 컬렉션 초기화 없이 count/exists 쿼리로 처리한다. <br/>
+     * add()는 연관관계 주인이 아닌(mappedBy) bag이므로 초기화 전에는 큐에 쌓였다가 초기화될 때 합쳐진다. <br/>
+     * → 큰 팀에 회원을 추가해도 members 전체를 조회하지 않는다. (Member.changeTeam)
+     */
     @OneToMany(mappedBy = "team")
+    @LazyCollection(LazyCollectionOption.EXTRA)
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
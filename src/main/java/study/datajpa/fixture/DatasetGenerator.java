@@ -0,0 +1,265 @@
+package study.datajpa.fixture;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.datajpa.cache.NaturalIdCache;
+import study.datajpa.cache.TableWriteTracker;
+import study.datajpa.search.UsernamePrefixIndexLoader;
+import study.datajpa.stats.TeamStatsAggregate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * [대량 데이터셋 생성기] <br/>
+ * DatasetSpec의 분포대로 팀, 회원, 상품을 만들어 엔티티 save 없이 적재한다. <br/>
+ * 1. CSVREAD : 임시 CSV 파일을 쓰고 테이블마다 insert ... select from CSVREAD 한 문장으로 적재 (H2 전용, 가장 빠르다.) <br/>
+ * 2. JDBC_BATCH : 10,000 row 단위 batch insert <br/>
+ * id는 hibernate_sequence에서 한 번의 next value로 예약하므로 적재 중 엔티티 insert와 id가 겹치지 않는다. <br/>
+ * 주의 : 하나의 트랜잭션이 아니다. (대량 적재의 undo 로그를 피하기 위해 문장/batch 단위로 커밋된다.) <br/>
+ * 엔티티 리스너(Auditing, 검색 인덱스, 팀 통계, outbox, 자연 키 캐시)를 거치지 않으므로 자연 키 캐시는 비우고 <br/>
+ * 애플리케이션 시작 후에 적재했다면 검색 인덱스와 팀 통계를 다시 만든다. (시작 전 적재는 시작 시점에 만들어진다.)
+ */
+@Slf4j
+@Component
+public class DatasetGenerator {
+
+    private static final int BATCH = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TableWriteTracker tableWriteTracker;
+    private final NaturalIdCache naturalIdCache;
+    private final TeamStatsAggregate teamStatsAggregate;
+    private final UsernamePrefixIndexLoader usernamePrefixIndexLoader;
+    private volatile boolean applicationReady;
+
+    public DatasetGenerator(DataSource dataSource, TableWriteTracker tableWriteTracker, NaturalIdCache naturalIdCache,
+                            TeamStatsAggregate teamStatsAggregate, UsernamePrefixIndexLoader usernamePrefixIndexLoader) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.tableWriteTracker = tableWriteTracker;
+        this.naturalIdCache = naturalIdCache;
+        this.teamStatsAggregate = teamStatsAggregate;
+        this.usernamePrefixIndexLoader = usernamePrefixIndexLoader;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        applicationReady = true;
+    }
+
+    public DatasetReport generate(DatasetSpec spec) {
+        long start = System.nanoTime();
+        DatasetSpec.LoadMode mode = spec.getMode() == DatasetSpec.LoadMode.AUTO ? detectMode() : spec.getMode();
+        long firstId = reserveIds(spec);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        if (mode == DatasetSpec.LoadMode.CSVREAD) {
+            loadWithCsvRead(spec, firstId, now);
+        } else {
+            loadWithBatch(spec, firstId, now);
+        }
+
+        tableWriteTracker.markWritten("team");
+        tableWriteTracker.markWritten("member");
+        tableWriteTracker.markWritten("item");
+        naturalIdCache.clear();
+        if (applicationReady) {
+            teamStatsAggregate.rebuild();
+            usernamePrefixIndexLoader.load();
+        }
+        DatasetReport report = new DatasetReport(mode, firstId, spec.getMembers(), spec.getTeams(), spec.getItems(),
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("dataset loaded: {}", report);
+        return report;
+    }
+
+    /**
+     * 다음 시퀀스 값부터 members + teams + items개의 id를 예약한다. <br/>
+     * next value 후 restart with 로 옮기면 그 사이 다른 트랜잭션이 받은 id와 겹칠 수 있으므로 <br/>
+     * INCREMENT BY를 잠시 total로 올린 채 next value를 한 번 호출해 [firstId, firstId + total)을 한 번에 가져온다. (H2는 현재 값을 돌려주고 increment만큼 전진) <br/>
+     * 그 사이 엔티티 insert가 받은 값은 total 크기의 빈 구간을 남길 뿐 겹치지 않는다. <br/>
+     * INCREMENT BY를 바꾸고 되돌리는 동안 다른 적재가 끼어들지 않도록 예약은 직렬화한다.
+     */
+    private synchronized long reserveIds(DatasetSpec spec) {
+        long total = Math.max(1, spec.getMembers() + spec.getTeams() + spec.getItems());
+        Long increment = jdbcTemplate.queryForObject("select increment from information_schema.sequences " +
+                "where sequence_name = 'HIBERNATE_SEQUENCE'", Long.class);
+        jdbcTemplate.execute("alter sequence hibernate_sequence increment by " + total);
+        try {
+            return jdbcTemplate.queryForObject("select next value for hibernate_sequence", Long.class);
+        } finally {
+            jdbcTemplate.execute("alter sequence hibernate_sequence increment by " + increment);
+        }
+    }
+
+    /** 같은 호스트의 H2(mem, file, tcp://localhost)만 DB가 임시 파일을 읽을 수 있다. */
+    private DatasetSpec.LoadMode detectMode() {
+        String url = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getURL());
+        String lower = url == null ? "" : url.toLowerCase(Locale.ROOT);
+        boolean localH2 = lower.startsWith("jdbc:h2:")
+                && (!lower.contains("://") || lower.contains("tcp://localhost") || lower.contains("tcp://127.0.0.1"));
+        return localH2 ? DatasetSpec.LoadMode.CSVREAD : DatasetSpec.LoadMode.JDBC_BATCH;
+    }
+
+    private void loadWithCsvRead(DatasetSpec spec, long firstId, Timestamp now) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("dataset-", ".csv");
+            String created = now.toString();
+            MemberRows rows = new MemberRows(spec, firstId);
+
+            writeCsv(file, "TEAM_ID,NAME", spec.getTeams(), (writer, t) ->
+                    writer.append(Long.toString(rows.firstTeamId + t)).append(",team").append(Long.toString(t)));
+            csvInsert("insert into team (team_id, name) select team_id, name from csvread(?, null, 'charset=UTF-8')", file);
+
+            writeCsv(file, "MEMBER_ID,USERNAME,AGE,TEAM_ID,CREATED_DATE", spec.getMembers(), (writer, i) -> {
+                rows.generate(i);
+                writer.append(Long.toString(rows.id)).append(',').append(rows.username)
+                        .append(',').append(Integer.toString(rows.age)).append(',');
+                if (rows.teamId != null) {
+                    writer.append(Long.toString(rows.teamId));
+                }
+                writer.append(',').append(created);
+            });
+            csvInsert("insert into member (member_id, username, age, team_id, created_date, last_modified_date) " +
+                    "select member_id, username, age, nullif(team_id, ''), created_date, created_date " +
+                    "from csvread(?, null, 'charset=UTF-8')", file);
+
+            writeCsv(file, "ID,CREATED_DATE", spec.getItems(), (writer, i) ->
+                    writer.append("item").append(Long.toString(rows.firstItemNumber + i)).append(',').append(created));
+            csvInsert("insert into item (id, created_date) select id, created_date from csvread(?, null, 'charset=UTF-8')", file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("could not delete {}", file, e);
+                }
+            }
+        }
+    }
+
+    private interface CsvRow {
+        void write(BufferedWriter writer, long index) throws IOException;
+    }
+
+    private static void writeCsv(Path file, String header, long rows, CsvRow row) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(
+                Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 20)) {
+            writer.write(header);
+            writer.newLine();
+            for (long i = 0; i < rows; i++) {
+                row.write(writer, i);
+                writer.newLine();
+            }
+        }
+    }
+
+    private void csvInsert(String sql, Path file) {
+        jdbcTemplate.update(sql, file.toAbsolutePath().toString());
+    }
+
+    private void loadWithBatch(DatasetSpec spec, long firstId, Timestamp now) {
+        MemberRows rows = new MemberRows(spec, firstId);
+        batch("insert into team (team_id, name) values (?, ?)", spec.getTeams(), (ps, t) -> {
+            ps.setLong(1, rows.firstTeamId + t);
+            ps.setString(2, "team" + t);
+        });
+        batch("insert into member (member_id, username, age, team_id, created_date, last_modified_date) " +
+                "values (?, ?, ?, ?, ?, ?)", spec.getMembers(), (ps, i) -> {
+            rows.generate(i);
+            ps.setLong(1, rows.id);
+            ps.setString(2, rows.username);
+            ps.setInt(3, rows.age);
+            if (rows.teamId == null) {
+                ps.setNull(4, Types.BIGINT);
+            } else {
+                ps.setLong(4, rows.teamId);
+            }
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+        batch("insert into item (id, created_date) values (?, ?)", spec.getItems(), (ps, i) -> {
+            ps.setString(1, "item" + (rows.firstItemNumber + i));
+            ps.setTimestamp(2, now);
+        });
+    }
+
+    private interface RowSetter {
+        void set(PreparedStatement ps, long index) throws SQLException;
+    }
+
+    private void batch(String sql, long rows, RowSetter setter) {
+        for (long from = 0; from < rows; from += BATCH) {
+            long offset = from;
+            int size = (int) Math.min(BATCH, rows - from);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    setter.set(ps, offset + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    /**
+     * 회원 row 생성 (row마다 같은 필드를 덮어쓴다.) <br/>
+     * 난수를 항상 같은 순서로 꺼내므로 적재 방식과 관계없이 같은 seed면 같은 데이터가 된다.
+     */
+    private static final class MemberRows {
+        final long firstId;
+        final long firstTeamId;
+        final long firstItemNumber;
+        final DatasetSpec spec;
+        final SplittableRandom random;
+        final Distribution teamRank;
+
+        long id;
+        String username;
+        int age;
+        Long teamId;
+
+        MemberRows(DatasetSpec spec, long firstId) {
+            this.spec = spec;
+            this.firstId = firstId;
+            this.firstTeamId = firstId + spec.getMembers();
+            this.firstItemNumber = firstTeamId + spec.getTeams();
+            this.random = new SplittableRandom(spec.getSeed());
+            this.teamRank = spec.getTeams() == 0 ? null : Distribution.zipf(spec.getTeams(), spec.getTeamSizeSkew());
+        }
+
+        void generate(long index) {
+            id = firstId + index;
+            int cardinality = spec.getUsernameCardinality();
+            username = "user" + (cardinality <= 0 ? id : random.nextInt(cardinality));
+            age = spec.getAges().sample(random);
+            boolean teamless = teamRank == null
+                    || (spec.getTeamlessRatio() > 0 && random.nextDouble() < spec.getTeamlessRatio());
+            teamId = teamless ? null : firstTeamId + teamRank.sample(random);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.fixture;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 데이터셋 적재 결과 <br/>
+ * id : 회원 firstId ~ firstId+members-1, 팀은 그 다음, 상품은 "item" + 그 다음 번호
+ */
+@Getter
+@ToString
+public class DatasetReport {
+    private final DatasetSpec.LoadMode mode;
+    private final long firstId;
+    private final long members;
+    private final int teams;
+    private final int items;
+    private final long elapsedMs;
+
+    public DatasetReport(DatasetSpec.LoadMode mode, long firstId, long members, int teams, int items, long elapsedMs) {
+        this.mode = mode;
+        this.firstId = firstId;
+        this.members = members;
+        this.teams = teams;
+        this.items = items;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public long firstTeamId() {
+        return firstId + members;
+    }
+}
@@ -0,0 +1,80 @@
+package study.datajpa.fixture;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * [생성할 데이터셋 정의] <br/>
+ * 예) new DatasetSpec().members(10_000_000).teams(1_000).teamSizeSkew(1.1).ages(Distribution.normal(35, 12, 0, 99)) <br/>
+ * teamSizeSkew : 0이면 팀마다 비슷한 인원, 클수록 앞쪽 팀에 회원이 몰린다. (zipf 지수) <br/>
+ * usernameCardinality : 서로 다른 username 수 (0이면 회원마다 user + id로 모두 다르다.) <br/>
+ * 같은 seed, 같은 설정이면 같은 데이터를 만든다.
+ */
+@Getter
+@ToString
+public class DatasetSpec {
+
+    public enum LoadMode {
+        /** 같은 호스트의 H2면 CSVREAD, 아니면 JDBC_BATCH */
+        AUTO,
+        /** CSV 파일을 쓰고 insert ... select from CSVREAD 한 문장으로 적재 (DB가 파일을 읽을 수 있어야 한다.) */
+        CSVREAD,
+        JDBC_BATCH
+    }
+
+    private long members = 10_000;
+    private int teams = 100;
+    private int items;
+    private double teamSizeSkew;
+    private double teamlessRatio;
+    private Distribution ages = Distribution.uniform(0, 99);
+    private int usernameCardinality;
+    private long seed = 42;
+    private LoadMode mode = LoadMode.AUTO;
+
+    public DatasetSpec members(long members) {
+        this.members = members;
+        return this;
+    }
+
+    public DatasetSpec teams(int teams) {
+        this.teams = teams;
+        return this;
+    }
+
+    public DatasetSpec items(int items) {
+        this.items = items;
+        return this;
+    }
+
+    public DatasetSpec teamSizeSkew(double teamSizeSkew) {
+        this.teamSizeSkew = teamSizeSkew;
+        return this;
+    }
+
+    /** 팀 없이 저장할 회원 비율 (0 ~ 1) */
+    public DatasetSpec teamlessRatio(double teamlessRatio) {
+        this.teamlessRatio = teamlessRatio;
+        return this;
+    }
+
+    public DatasetSpec ages(Distribution ages) {
+        this.ages = ages;
+        return this;
+    }
+
+    public DatasetSpec usernameCardinality(int usernameCardinality) {
+        this.usernameCardinality = usernameCardinality;
+        return this;
+    }
+
+    public DatasetSpec seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public DatasetSpec mode(LoadMode mode) {
+        this.mode = mode;
+        return this;
+    }
+}
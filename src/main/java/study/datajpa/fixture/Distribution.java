@@ -0,0 +1,54 @@
+package study.datajpa.fixture;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 데이터 생성용 정수 분포 <br/>
+ * uniform : [min, max] 균등 <br/>
+ * zipf : 0 ~ n-1, 순위 k의 확률이 1/(k+1)^exponent에 비례 (0번이 가장 많다. 팀 크기 편중 등) <br/>
+ * normal : 평균/표준편차의 정규분포를 [min, max]로 자른 값 (나이 편중 등)
+ */
+@FunctionalInterface
+public interface Distribution {
+
+    int sample(SplittableRandom random);
+
+    static Distribution uniform(int min, int max) {
+        if (max < min) {
+            throw new IllegalArgumentException("max " + max + " < min " + min);
+        }
+        return random -> min + random.nextInt(max - min + 1);
+    }
+
+    static Distribution zipf(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("zipf needs n > 0: " + n);
+        }
+        if (exponent == 0) {
+            return uniform(0, n - 1);
+        }
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = total;
+        }
+        double sum = total;
+        return random -> {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            return Math.min(index < 0 ? -index - 1 : index, n - 1);
+        };
+    }
+
+    static Distribution normal(double mean, double stdDev, int min, int max) {
+        return random -> {
+            // Box-Muller (SplittableRandom에는 nextGaussian이 없다.)
+            double u1 = 1.0 - random.nextDouble();
+            double u2 = random.nextDouble();
+            double gaussian = Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+            long value = Math.round(mean + gaussian * stdDev);
+            return (int) Math.max(min, Math.min(max, value));
+        };
+    }
+}
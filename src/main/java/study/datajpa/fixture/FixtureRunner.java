@@ -0,0 +1,56 @@
+package study.datajpa.fixture;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * [시작 시점 데이터 적재] <br/>
+ * datajpa.fixture.enabled=true이면 애플리케이션 시작 시 DatasetGenerator로 데이터를 적재한다. <br/>
+ * 예) --datajpa.fixture.enabled=true --datajpa.fixture.members=10000000 --datajpa.fixture.team-size-skew=1.1
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.fixture.enabled", havingValue = "true")
+public class FixtureRunner implements ApplicationRunner {
+
+    private final DatasetGenerator datasetGenerator;
+
+    @Value("${datajpa.fixture.members:300}")
+    private long members;
+    @Value("${datajpa.fixture.teams:10}")
+    private int teams;
+    @Value("${datajpa.fixture.items:0}")
+    private int items;
+    @Value("${datajpa.fixture.team-size-skew:0}")
+    private double teamSizeSkew;
+    @Value("${datajpa.fixture.teamless-ratio:0}")
+    private double teamlessRatio;
+    @Value("${datajpa.fixture.age-mean:35}")
+    private double ageMean;
+    @Value("${datajpa.fixture.age-std-dev:15}")
+    private double ageStdDev;
+    @Value("${datajpa.fixture.username-cardinality:0}")
+    private int usernameCardinality;
+    @Value("${datajpa.fixture.seed:42}")
+    private long seed;
+    @Value("${datajpa.fixture.mode:AUTO}")
+    private DatasetSpec.LoadMode mode;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        datasetGenerator.generate(new DatasetSpec()
+                .members(members)
+                .teams(teams)
+                .items(items)
+                .teamSizeSkew(teamSizeSkew)
+                .teamlessRatio(teamlessRatio)
+                .ages(Distribution.normal(ageMean, ageStdDev, 0, 99))
+                .usernameCardinality(usernameCardinality)
+                .seed(seed)
+                .mode(mode));
+    }
+}
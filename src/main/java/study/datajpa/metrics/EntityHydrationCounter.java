@@ -0,0 +1,22 @@
+package study.datajpa.metrics;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * 현재 스레드에서 로딩(hydrate)된 엔티티 수 <br/>
+ * 리포지토리 호출 전후 값의 차이로 호출 하나가 로딩한 엔티티 수를 구한다. (중첩 호출도 그대로 포함된다.)
+ */
+public class EntityHydrationCounter implements PostLoadEventListener {
+
+    private static final ThreadLocal<long[]> LOADED = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        LOADED.get()[0]++;
+    }
+
+    public static long current() {
+        return LOADED.get()[0];
+    }
+}
@@ -0,0 +1,82 @@
+package study.datajpa.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메소드 하나의 누적 값 (잠금 없이 LongAdder, AtomicLongArray로 기록한다.)
+ */
+class MethodMetrics {
+    static final int BUCKETS = 32;
+
+    private final String method;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder entities = new LongAdder();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    private final Map<String, LongAdder> exceptions = new ConcurrentHashMap<>();
+
+    MethodMetrics(String method) {
+        this.method = method;
+    }
+
+    void record(long nanos, long rowCount, long hydrated, Throwable error) {
+        calls.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram.incrementAndGet(bucket(nanos));
+        rows.add(rowCount);
+        entities.add(hydrated);
+        if (error != null) {
+            errors.increment();
+            exceptions.computeIfAbsent(error.getClass().getName(), key -> new LongAdder()).increment();
+        }
+    }
+
+    /** 0 : 1µs 미만, i : 2^(i-1) ~ 2^i µs */
+    static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+    }
+
+    RepositoryMethodStats snapshot() {
+        long count = calls.sum();
+        long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = histogram.get(i);
+        }
+        Map<String, Long> exceptionCounts = new TreeMap<>();
+        exceptions.forEach((type, adder) -> exceptionCounts.put(type, adder.sum()));
+        return new RepositoryMethodStats(method, count, errors.sum(),
+                count == 0 ? 0 : millis(totalNanos.sum() / count), millis(maxNanos.get()),
+                percentile(buckets, 0.50), percentile(buckets, 0.99),
+                rows.sum(), entities.sum(), exceptionCounts, buckets);
+    }
+
+    private static double percentile(long[] buckets, double p) {
+        long total = 0;
+        for (long bucket : buckets) {
+            total += bucket;
+        }
+        long rank = (long) Math.ceil(p * total);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (total > 0 && seen >= rank) {
+                return (1L << i) / 1000.0; // 칸 상한 (µs → ms)
+            }
+        }
+        return 0;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * 리포지토리 메소드별 통계 스냅샷 <br/>
+ * 백분위는 2배 단위 히스토그램 칸의 상한값이다. (예: p99Ms = 4.096 → 99%가 4.096ms 이하) <br/>
+ * latencyHistogram[i] : 응답 시간 2^(i-1) ~ 2^i µs 호출 수 (0번 칸은 1µs 미만)
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class RepositoryMethodStats {
+    private final String method;
+    private final long calls;
+    private final long errors;
+    private final double meanMs;
+    private final double maxMs;
+    private final double p50Ms;
+    private final double p99Ms;
+    private final long rows;              // 반환한 row 수 (컬렉션/Page/Slice 크기, @Modifying은 변경 건수)
+    private final long entitiesHydrated;  // 호출 동안 영속성 컨텍스트에 로딩된 엔티티 수
+    private final Map<String, Long> exceptions; // 예외 클래스별 횟수
+    private final long[] latencyHistogram;
+}
@@ -0,0 +1,37 @@
+package study.datajpa.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * [리포지토리 메소드 통계 저장소] <br/>
+ * 메소드("MemberRepository.findAll(Pageable,FetchPlan)")별 호출 수, 응답 시간 히스토그램, row 수, 로딩 엔티티 수, 예외를 모은다. <br/>
+ * datajpa.repository-metrics.enabled=true 일때만 등록된다. (꺼져 있으면 리포지토리 프록시에 인터셉터가 붙지 않는다.)
+ */
+@Component
+@ConditionalOnProperty(name = "datajpa.repository-metrics.enabled", havingValue = "true")
+public class RepositoryMetrics {
+
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    MethodMetrics forMethod(String method) {
+        return methods.computeIfAbsent(method, MethodMetrics::new);
+    }
+
+    public List<RepositoryMethodStats> snapshot() {
+        List<RepositoryMethodStats> result = new ArrayList<>();
+        methods.values().forEach(metrics -> result.add(metrics.snapshot()));
+        result.sort(Comparator.comparing(RepositoryMethodStats::getMethod));
+        return result;
+    }
+
+    public void reset() {
+        methods.clear();
+    }
+}
@@ -0,0 +1,88 @@
+package study.datajpa.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.support.RepositoryAdvice;
+import study.datajpa.repository.support.RowSet;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 모든 리포지토리 메소드 호출(쿼리 메소드, @Query, 사용자 정의 구현체, Specification)을 계측한다. <br/>
+ * 가장 바깥쪽(@Order(50))에서 재므로 쿼리 캐시 적중도 호출자가 본 시간 그대로 기록된다.
+ */
+@Component
+@Order(50)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.repository-metrics.enabled", havingValue = "true")
+public class RepositoryMetricsAdvice implements RepositoryAdvice {
+
+    private final RepositoryMetrics repositoryMetrics;
+
+    @Override
+    public MethodInterceptor interceptorFor(RepositoryInformation repositoryInformation) {
+        String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+        Map<Method, String> names = new ConcurrentHashMap<>();
+        return invocation -> {
+            Method method = invocation.getMethod();
+            String name = names.computeIfAbsent(method, m -> name(repository, m));
+            long hydrated = EntityHydrationCounter.current();
+            long start = System.nanoTime();
+            Object result = null;
+            Throwable error = null;
+            try {
+                result = invocation.proceed();
+                return result;
+            } catch (Throwable e) {
+                error = e;
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                repositoryMetrics.forMethod(name).record(elapsed, rows(method, result),
+                        EntityHydrationCounter.current() - hydrated, error);
+            }
+        };
+    }
+
+    private static String name(String repository, Method method) {
+        StringJoiner parameters = new StringJoiner(",", "(", ")");
+        for (Class<?> type : method.getParameterTypes()) {
+            parameters.add(type.getSimpleName());
+        }
+        return repository + "." + method.getName() + parameters;
+    }
+
+    private static long rows(Method method, Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) { // Page 포함
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof RowSet) {
+            return ((RowSet) result).size();
+        }
+        if (result instanceof Number && AnnotatedElementUtils.hasAnnotation(method, Modifying.class)) {
+            return ((Number) result).longValue(); // 벌크 연산 변경 건수
+        }
+        return 1;
+    }
+}
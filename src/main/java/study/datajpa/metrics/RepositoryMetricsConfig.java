@@ -0,0 +1,29 @@
+package study.datajpa.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * EntityHydrationCounter를 Hibernate 이벤트 레지스트리에 등록한다. (계측이 켜져 있을 때만)
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.repository-metrics.enabled", havingValue = "true")
+public class RepositoryMetricsConfig {
+
+    private final EntityManagerFactory emf;
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, new EntityHydrationCounter());
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * 기본 전달 대상 : 애플리케이션 내부 리스너 <br/>
+ * 이벤트마다 스프링 이벤트로 발행하므로 @EventListener(OutboxEvent.class)로 구독한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher publisher;
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        events.forEach(publisher::publishEvent);
+    }
+}
@@ -0,0 +1,30 @@
+package study.datajpa.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * OutboxEventListener를 Hibernate 이벤트 레지스트리에 등록한다. (주기 전달은 OutboxRelayScheduling)
+ */
+@Configuration
+@RequiredArgsConstructor
+public class OutboxConfig {
+
+    private final EntityManagerFactory emf;
+    private final OutboxEventListener listener;
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+}
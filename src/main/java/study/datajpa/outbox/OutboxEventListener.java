@@ -0,0 +1,162 @@
+package study.datajpa.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.HibernateException;
+import org.hibernate.StatelessSession;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.type.Type;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.SpringJpaBaseEntity;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * [Outbox 기록] SpringJpaBaseEntity 하위 엔티티의 insert/update/delete 이벤트를 모아두었다가 <br/>
+ * 트랜잭션 커밋 직전(flush 이후, DB 커밋 이전)에 같은 커넥션으로 outbox_event에 batch insert 한다. <br/>
+ * flush 도중에는 영속성 컨텍스트를 건드리지 않도록 엔티티 persist 대신 JDBC를 사용한다. <br/>
+ * 롤백되면 모아둔 이벤트는 버려진다. <br/>
+ * 이벤트가 없는 StatelessSession 쓰기는 호출한 쪽이 writeStateless로 직접 기록한다.
+ */
+@Component
+public class OutboxEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String INSERT =
+            "insert into outbox_event (aggregate_type, aggregate_id, event_type, payload, occurred_at) values (?, ?, ?, ?, ?)";
+
+    private final ObjectMapper objectMapper;
+    /** 세션별 커밋 대기 이벤트 (세션은 스레드에 묶여 쓰이지만 세션 종료 누락에 대비해 weak 참조) */
+    private final Map<SessionImplementor, List<Object[]>> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public OutboxEventListener(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof SpringJpaBaseEntity) {
+            record(event.getSession(), event.getPersister(), event.getId(), "CREATED", event.getState());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof SpringJpaBaseEntity) {
+            record(event.getSession(), event.getPersister(), event.getId(), "UPDATED", event.getState());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof SpringJpaBaseEntity) {
+            record(event.getSession(), event.getPersister(), event.getId(), "DELETED", event.getDeletedState());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * StatelessSession insert/update 기록 (eventType : CREATED, UPDATED) <br/>
+     * 엔티티 SQL은 이미 실행되었으므로 같은 커넥션에 바로 insert 한다. (롤백되면 함께 롤백)
+     */
+    public void writeStateless(StatelessSession statelessSession, String eventType, List<?> entities) {
+        SharedSessionContractImplementor session = (SharedSessionContractImplementor) statelessSession;
+        List<Object[]> rows = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            if (entity instanceof SpringJpaBaseEntity) {
+                EntityPersister persister = session.getEntityPersister(null, entity);
+                rows.add(row(session, persister, persister.getIdentifier(entity, session), eventType,
+                        persister.getPropertyValues(entity)));
+            }
+        }
+        if (!rows.isEmpty()) {
+            try {
+                insert(session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection(), rows);
+            } catch (SQLException e) {
+                throw new HibernateException("outbox insert failed", e);
+            }
+        }
+    }
+
+    private void record(EventSource session, EntityPersister persister, Object id, String eventType, Object[] state) {
+        Object[] row = row(session, persister, id, eventType, state);
+
+        List<Object[]> rows = pending.get(session);
+        if (rows == null) {
+            List<Object[]> created = new ArrayList<>();
+            pending.put(session, created);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) s -> flush(s, created));
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> pending.remove(session));
+            rows = created;
+        }
+        rows.add(row);
+    }
+
+    private void flush(SessionImplementor session, List<Object[]> rows) {
+        pending.remove(session);
+        if (rows.isEmpty()) {
+            return;
+        }
+        session.doWork(connection -> insert(connection, rows));
+    }
+
+    private static void insert(Connection connection, List<Object[]> rows) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private Object[] row(SharedSessionContractImplementor session, EntityPersister persister, Object id,
+                         String eventType, Object[] state) {
+        return new Object[]{simpleName(persister.getEntityName()), String.valueOf(id), eventType,
+                payload(session, persister, state), Timestamp.valueOf(LocalDateTime.now())};
+    }
+
+    /** 컬렉션은 제외하고, 연관 엔티티는 id로 바꾼 속성 JSON */
+    private String payload(SharedSessionContractImplementor session, EntityPersister persister, Object[] state) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        for (int i = 0; i < names.length; i++) {
+            if (types[i].isCollectionType()) {
+                continue;
+            }
+            Object value = state[i];
+            if (value != null && types[i].isEntityType()) {
+                value = value instanceof HibernateProxy
+                        ? ((HibernateProxy) value).getHibernateLazyInitializer().getIdentifier()
+                        : session.getEntityPersister(null, value).getIdentifier(value, session);
+            }
+            properties.put(names[i], value);
+        }
+        try {
+            return objectMapper.writeValueAsString(properties);
+        } catch (JsonProcessingException e) {
+            throw new HibernateException("outbox payload serialization failed", e);
+        }
+    }
+
+    private static String simpleName(String entityName) {
+        return entityName.substring(entityName.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,72 @@
+package study.datajpa.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.OutboxEvent;
+import study.datajpa.repository.OutboxEventRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * [Outbox Relay] <br/>
+ * outbox_event를 id 순으로 batchSize개씩 꺼내 모든 OutboxSink에 전달하고, 전달이 끝난 배치만 삭제한다. <br/>
+ * 전달 도중 실패하면 삭제하지 않으므로 다음 주기에 다시 전달된다. (at-least-once) <br/>
+ * datajpa.outbox.batch-size : 한번에 꺼낼 이벤트 수 <br/>
+ * 주기 실행은 OutboxRelayScheduling이 켜져 있을 때만 한다. (datajpa.outbox.relay-enabled)
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, List<OutboxSink> sinks,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${datajpa.outbox.batch-size:100}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /** drain()을 실행하고 실패는 로그만 남긴다. (다음 주기에 다시 전달) */
+    public void poll() {
+        try {
+            drain();
+        } catch (Exception e) {
+            log.warn("outbox relay failed, will retry", e);
+        }
+    }
+
+    /**
+     * 대기중인 이벤트를 모두 전달한다.
+     * @return 전달 후 삭제한 이벤트 수
+     */
+    public synchronized int drain() throws Exception {
+        int delivered = 0;
+        while (true) {
+            List<OutboxEvent> batch = outboxEventRepository.findByIdGreaterThanOrderByIdAsc(
+                    0L, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return delivered;
+            }
+            for (OutboxSink sink : sinks) {
+                sink.deliver(batch);
+            }
+            List<Long> ids = batch.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(ids));
+            delivered += batch.size();
+            if (batch.size() < batchSize) {
+                return delivered;
+            }
+        }
+    }
+}
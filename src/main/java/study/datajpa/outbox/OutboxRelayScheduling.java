@@ -0,0 +1,26 @@
+package study.datajpa.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * [Outbox Relay 주기 실행] <br/>
+ * datajpa.outbox.relay-enabled=true 일 때만 등록된다. (테스트 컨텍스트가 공유 DB의 outbox_event를 가져가지 않도록) <br/>
+ * datajpa.outbox.poll-interval-ms : 주기 (이전 실행이 끝난 뒤부터)
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "datajpa.outbox.relay-enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class OutboxRelayScheduling {
+
+    private final OutboxRelay outboxRelay;
+
+    @Scheduled(fixedDelayString = "${datajpa.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        outboxRelay.poll();
+    }
+}
@@ -0,0 +1,14 @@
+package study.datajpa.outbox;
+
+import study.datajpa.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Outbox 이벤트 전달 대상 <br/>
+ * 예외를 던지면 해당 배치는 삭제되지 않고 다음 relay에서 다시 전달된다. (at-least-once) <br/>
+ * 따라서 구현체는 같은 이벤트(id)를 두번 받아도 안전해야 한다.
+ */
+public interface OutboxSink {
+    void deliver(List<OutboxEvent> events) throws Exception;
+}
@@ -6,8 +6,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import study.datajpa.cache.NaturalIdLookup;
+import study.datajpa.cache.QueryCache;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.FetchPlan;
+import study.datajpa.repository.support.RowSet;
+import study.datajpa.stats.IncrementsAge;
 
 import javax.persistence.Entity;
 import javax.persistence.LockModeType;
@@ -45,8 +50,10 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * @Query 조회 <br/>
      * 단순 값 1개 조회 <br/>
      * 해당 컬럼의 타입을 반환타입의 제너릭으로 지정 <br/>
-     * 이 경우도 Map<'String,Object> 타입을 사용할 수 있다.
+     * 이 경우도 Map<'String,Object> 타입을 사용할 수 있다. <br/>
+     * @QueryCache : 회원 테이블 전체를 조회하므로 쓰기가 없는 동안에는 캐시된 결과를 반환한다.
      */
+    @QueryCache
     @Query("select m.username from Member m")
     List<String> findUserNameListOne();
 
@@ -58,17 +65,27 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * @Element : Key(컬럼명)
      * @Type : Value(데이터)
      */
-
+    @QueryCache
     @Query("select m.username as username, m.age as age from Member m")
     List<Map<String, Object>> findUserNameListOfMap();
 
+    /**
+     * @Query RowSet 조회 <br/>
+     * Map 조회와 같은 쿼리지만 컬럼 스키마를 모든 row가 공유하고 age는 int[]에 저장된다. <br/>
+     * 예) rows.getString(0, rows.columnIndex("username")), rows.getInt(0, rows.columnIndex("age"))
+     */
+    @Query("select m.username as username, m.age as age from Member m")
+    RowSet findUserNameListOfRows();
+
     /**
      * @Query DTO 조회 <br/>
      * 순수 JPA JPQL과 동일하다. <br/>
      * 조회할 컬럼을 다음과 같이 new 예약어를 사용하여 DTO 생성자에 주입해준다. <br/>
      * new인스턴스 DTO생성자 사용시 주의할 점은 풀패키지명을 기입해줘야한다. <br/>
-     * 예) new jpabook.jpql.UserDTO(m.username, m.age)
+     * 예) new jpabook.jpql.UserDTO(m.username, m.age) <br/>
+     * @QueryCache : team과 조인하므로 member, team 두 테이블 중 하나라도 쓰기가 발생하면 무효화된다.
      */
+    @QueryCache(tables = {"member", "team"})
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findUserNameListOfDto();
 
@@ -82,7 +99,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     //===반환타입===//
     List<Member> findListByUsername(String username); // 컬렉션
+    @NaturalIdLookup
     Member findMemberByUsername(String username); // 단건
+    @NaturalIdLookup
     Optional<Member> findOptionalByUsername(String username); // 단건 Optional
 
     Page<Member> findByAge(int age, PageRequest pageable); //반환 타입을 Page로 받으면 TotalCount도 함께 쿼리가 조회된다.
@@ -91,9 +110,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     /**
      * [페이징] - countQuery 분리 <br/>
-     * JPQL사용할때 LeftJOin 문이라면 CountQuery를 따로 지정할 수 있다.
+     * JPQL사용할때 LeftJOin 문이라면 CountQuery를 따로 지정할 수 있다. <br/>
+     * countQuery를 생략하면 CountQueryAdvice가 건수에 영향이 없는 left join을 뺀 count 쿼리를 만든다. <br/>
+     * (select count(m) from Member m where m.age = :age) <br/>
+     * :age는 @Param 없이 파라미터 이름으로 바인딩된다. (-parameters)
      */
-    @Query(value = "select m from Member m left join m.team t", countQuery = "select count(m.username) from Member m")
+    @Query(value = "select m from Member m left join m.team t where m.age = :age")
     Page<Member> findByAgeOfJPQL(int age, PageRequest pageable);
 
     /**
@@ -102,8 +124,10 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * (생략시 getResultList나 getSingleResult를 호출한다. - 에러 발생) <br/>
      * 벌크 연산은 바로 DB에 Update쿼리가 날라가기 때문에 영속성 컨텍스트에 영향을 주지 않는다. <br/>
      * 즉, 트랜잭션 커밋 시점에 save()가 persist되므로 flush로 인해 쿼리는 날라가지만 update이후 1차캐시는 여전히 그대로가 될것이다. <br/>
-     * 이에 따른 대안으로는 clearAutomatically = true 통해 1차캐시를 비워줄 수 있다.(기본값 false)
+     * 이에 따른 대안으로는 clearAutomatically = true 통해 1차캐시를 비워줄 수 있다.(기본값 false) <br/>
+     * @IncrementsAge : 팀 통계는 나이대 경계를 넘는 회원만 세어서 갱신한다. (전체 재집계 없음)
      */
+    @IncrementsAge(minAgeParam = "age")
     @Modifying(clearAutomatically = true)
     @Query("update Member m set m.age = m.age+1 where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
@@ -144,6 +168,23 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @EntityGraph("Member.all")
     List<Member> findEgByUsername(@Param("username") String username);
 
+    /**
+     * 동적 Fetch Plan 페이징 조회 <br/>
+     * 호출하는 쪽에서 FetchPlan.of("team")을 넘길 때만 team을 fetch join 한다. <br/>
+     * count 쿼리에는 fetch join이 걸리지 않는다.
+     */
+    default Page<Member> findAll(Pageable pageable, FetchPlan fetchPlan) {
+        return findAll(fetchPlan.<Member>toSpecification(), pageable);
+    }
+
+    /**
+     * 동적 Fetch Plan 단건 조회 <br/>
+     * findById는 연관관계를 조인하지 않으므로 team이 필요할 때만 FetchPlan으로 함께 조회한다.
+     */
+    default Optional<Member> findById(Long id, FetchPlan fetchPlan) {
+        return findOne(MemberSpecification.id(id).and(fetchPlan.toSpecification()));
+    }
+
 
     /**
      * @QueryHints 적용 <br/>
@@ -162,6 +203,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * 불필요한 메모리를 낭비하지 않게된다. (성능 최적화)
      */
     @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @NaturalIdLookup
     Member findReadOnlyByUsername(String username);
 
     /**
@@ -196,14 +238,37 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * 이름을 직접 부여해서 파라미터 바인딩하는 {:파라미터명, @Param} 문법도 사용이 가능하다.
      */
     @Query(value="select * from member where username = ?", nativeQuery = true)
+    @NaturalIdLookup
     Member findByNativeQuery(String username);
 
     /**
-     * NativeQuery - Projection활용
+     * NativeQuery - Projection활용 <br/>
+     * row마다 Tuple, Map, 프록시를 만든다. 페이징 리포트 조회는 findByNativeDto를 사용한다.
      */
     @Query(value="select  m.member_id as id, m.username, t.name as teamName " +
                     "FROM member m left join team t ON m.team_id = t.team_id",
             countQuery = "SELECT count(*) from member",
             nativeQuery = true)
     Page<MemberProjection> findByNativeProjetion(Pageable pageable);
+
+    /**
+     * NativeQuery - DTO 생성자 매핑 (NativeDtoQueryAdvice) <br/>
+     * 컬럼 라벨과 생성자 파라미터 이름으로 매핑하며 row당 MemberDto 하나만 만든다.
+     */
+    @Query(value="select  m.member_id as id, m.username, t.name as teamName " +
+                    "FROM member m left join team t ON m.team_id = t.team_id",
+            countQuery = "SELECT count(*) from member",
+            nativeQuery = true)
+    Page<MemberDto> findByNativeDto(Pageable pageable);
+
+    /**
+     * NativeQuery - RowSet 활용 <br/>
+     * 인터페이스 프록시 대신 컬럼 배열로 받는다. (컬럼명은 DB가 돌려준 라벨이며 대소문자 구분없이 조회한다.) <br/>
+     * RowSet은 Pageable을 받을 수 없으므로 (Spring Data가 Page, Slice, List 반환만 허용) offset, limit을 직접 받는다.
+     */
+    @Query(value="select m.member_id as id, m.username, m.age, t.name as teamName " +
+                    "FROM member m left join team t ON m.team_id = t.team_id " +
+                    "order by m.member_id limit :limit offset :offset",
+            nativeQuery = true)
+    RowSet findNativeRows(@Param("offset") int offset, @Param("limit") int limit);
 }
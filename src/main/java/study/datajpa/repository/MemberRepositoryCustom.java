@@ -1,10 +1,51 @@
 package study.datajpa.repository;
 
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.FetchPlan;
+import study.datajpa.repository.support.SpecificationQuery;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    /**
+     * [Deferred Join 페이징] <br/>
+     * findAll(pageable, fetchPlan)과 같은 결과를 id 정렬 조회 → id in 조회 두 단계로 가져온다. <br/>
+     * offset이 깊은 정렬 페이징에 사용한다.
+     */
+    Page<Member> findAllDeferred(Pageable pageable, FetchPlan fetchPlan);
+
+    /**
+     * [Specification 조회] <br/>
+     * 예) query(MemberSpecification.teamName("teamA")).sortBy(Sort.by(DESC, "age")).as(MemberDto.class).scroll(position, 20) <br/>
+     * 필요한 컬럼만 조회하는 프로젝션, 스트리밍, keyset 스크롤을 지원한다. (SpecificationQuery)
+     */
+    SpecificationQuery<Member, Member> query(Specification<Member> spec);
+
+    /**
+     * [StatelessSession] 스트리밍 조회 <br/>
+     * 조회한 회원은 영속성 컨텍스트에 보관되지 않는다. (team은 초기화되지 않은 프록시)
+     * @return 처리한 회원 수
+     */
+    long forEachMemberStateless(int fetchSize, Consumer<Member> action);
+
+    /**
+     * [StatelessSession] 저장 <br/>
+     * 엔티티 리스너 대신 직접 반영 : outbox(CREATED), 팀 통계 증감, 자연 키 캐시 비우기, 커밋 후 username 인덱스 <br/>
+     * 반영되지 않음 : Auditing(@CreatedDate, @CreatedBy 등 컬럼은 null), cascade, 영속성 컨텍스트
+     */
+    int insertStateless(List<Member> members);
+
+    /**
+     * [StatelessSession] 수정 - 변경감지 없이 전체 컬럼 update를 바로 실행한다. <br/>
+     * 엔티티 리스너 대신 직접 반영 : outbox(UPDATED), 팀 통계 재구성(커밋 후), 자연 키 캐시 비우기, 커밋 후 username 인덱스 <br/>
+     * 반영되지 않음 : Auditing(@LastModifiedDate 등은 넘긴 값 그대로), cascade
+     */
+    int updateStateless(List<Member> members);
 }
@@ -1,12 +1,31 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.cache.NaturalIdCache;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.outbox.OutboxEventListener;
+import study.datajpa.repository.support.DeferredJoinPaging;
+import study.datajpa.repository.support.FetchPlan;
+import study.datajpa.repository.support.SpecificationQuery;
+import study.datajpa.repository.support.StatelessSessions;
+import study.datajpa.search.UsernamePrefixIndex;
+import study.datajpa.stats.TeamStatsAggregate;
 
 import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 사용자 정의 인터페이스 구현체 클래스 <br/>
@@ -22,10 +41,106 @@ import java.util.List;
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom{
 
     private final EntityManager em;
+    private final NaturalIdCache naturalIdCache;
+    private final OutboxEventListener outboxEventListener;
+    private final TeamStatsAggregate teamStatsAggregate;
+    private final UsernamePrefixIndex usernamePrefixIndex;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Member> findAllDeferred(Pageable pageable, FetchPlan fetchPlan) {
+        return DeferredJoinPaging.findAll(em, Member.class, pageable, fetchPlan);
+    }
+
+    @Override
+    public SpecificationQuery<Member, Member> query(Specification<Member> spec) {
+        return SpecificationQuery.of(em, Member.class, spec);
+    }
+
+    /**
+     * FORWARD_ONLY 스크롤로 한 row씩 읽어 action에 넘긴다. <br/>
+     * 처리가 끝난 회원은 어디에도 참조가 남지 않으므로 대량 조회에도 메모리가 늘지 않는다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long forEachMemberStateless(int fetchSize, Consumer<Member> action) {
+        return StatelessSessions.execute(em, session -> {
+            long count = 0;
+            ScrollableResults results = session.createQuery("select m from Member m", Member.class)
+                    .setFetchSize(fetchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (results.next()) {
+                    action.accept((Member) results.get(0));
+                    count++;
+                }
+            } finally {
+                results.close();
+            }
+            return count;
+        });
+    }
+
+    /**
+     * StatelessSession은 이벤트가 없어 엔티티 리스너를 거치지 않으므로 여기서 직접 반영한다. <br/>
+     * 자연 키 캐시 비우기, outbox 기록(같은 트랜잭션), 팀 통계 증감, 커밋 후 username 인덱스
+     */
+    @Override
+    @Transactional
+    public int insertStateless(List<Member> members) {
+        return StatelessSessions.execute(em, session -> {
+            members.forEach(session::insert);
+            outboxEventListener.writeStateless(session, "CREATED", members);
+            naturalIdCache.clear();
+            members.forEach(member -> teamStatsAggregate.record(teamId(member), member.getAge(), 1));
+            putUsernamesAfterCommit(members);
+            return members.size();
+        });
+    }
+
+    /** 수정 전 팀, 나이를 알 수 없으므로 팀 통계는 커밋 후 재구성한다. */
+    @Override
+    @Transactional
+    public int updateStateless(List<Member> members) {
+        return StatelessSessions.execute(em, session -> {
+            members.forEach(session::update);
+            outboxEventListener.writeStateless(session, "UPDATED", members);
+            naturalIdCache.clear();
+            teamStatsAggregate.markStale();
+            putUsernamesAfterCommit(members);
+            return members.size();
+        });
+    }
+
+    private static Long teamId(Member member) {
+        Team team = member.getTeam();
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return team == null ? null : team.getId();
+    }
+
+    /** UsernameIndexListener와 같이 커밋된 뒤에만 반영한다. (호출 시점 값을 캡처) */
+    private void putUsernamesAfterCommit(List<Member> members) {
+        long[] ids = new long[members.size()];
+        String[] usernames = new String[members.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = members.get(i).getId();
+            usernames[i] = members.get(i).getUsername();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (int i = 0; i < ids.length; i++) {
+                    usernamePrefixIndex.put(ids[i], usernames[i]);
+                }
+            }
+        });
+    }
 }
@@ -49,4 +49,13 @@ public class MemberSpecification {
         return (Specification<Member>) (root, query, builder) ->
                 builder.equal(root.get("username"), username);
     }
+
+    /**
+     * where
+     * member0_.member_id=?
+     */
+    public static Specification<Member> id(final Long id) {
+        return (Specification<Member>) (root, query, builder) ->
+                builder.equal(root.get("id"), id);
+    }
 }
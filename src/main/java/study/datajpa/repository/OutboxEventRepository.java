@@ -0,0 +1,13 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import study.datajpa.entity.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /** 전달 대기 이벤트를 id 순으로 pageable 크기만큼 조회 (count 쿼리 없음) */
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+}
@@ -0,0 +1,13 @@
+package study.datajpa.repository;
+
+import study.datajpa.dto.TeamRemovalDto;
+
+public interface TeamRepositoryCustom {
+
+    /**
+     * [집합 기반 팀 삭제] <br/>
+     * Team.members를 초기화하지 않고 소속 회원을 chunkSize 단위 벌크 JPQL로 다른 팀에 옮기거나(reassignTo) 삭제한 뒤 팀을 삭제한다.
+     * @param reassignTo 회원을 옮길 팀 id (null이면 회원도 삭제)
+     */
+    TeamRemovalDto removeTeam(Long teamId, Long reassignTo, int chunkSize);
+}
@@ -0,0 +1,130 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.dto.TeamRemovalDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.search.UsernamePrefixIndex;
+import study.datajpa.stats.TeamStatsAggregate;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TeamRepositoryCustom 구현체 <br/>
+ * 회원은 id만 조회(chunkSize개씩)해서 id 목록으로 벌크 update/delete 하므로 <br/>
+ * 회원 수와 무관하게 엔티티를 메모리에 올리지 않는다. (10만명 / chunk 1만 → select 10 + update 10) <br/>
+ * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 처리한 회원만 영속성 컨텍스트와 2차 캐시에서 제거하고, <br/>
+ * 이벤트가 없는 변경은 팀 통계(커밋 후 팀 카운터 제거/이전)와 username 인덱스(커밋 후 remove)에 직접 반영한다. <br/>
+ * 주의 : 회원 단위 outbox 이벤트는 남지 않는다. (팀 DELETED 이벤트만 기록된다.)
+ */
+@RequiredArgsConstructor
+public class TeamRepositoryCustomImpl implements TeamRepositoryCustom {
+
+    private static final String MEMBER_IDS = "select m.id from Member m where m.team.id = :teamId order by m.id";
+    private static final String REASSIGN = "update Member m set m.team = :target where m.id in :ids";
+    private static final String DELETE = "delete from Member m where m.id in :ids";
+    private static final String MEMBERS_ROLE = Team.class.getName() + ".members";
+
+    private final EntityManager em;
+    private final TeamStatsAggregate teamStatsAggregate;
+    private final UsernamePrefixIndex usernamePrefixIndex;
+
+    @Override
+    @Transactional
+    public TeamRemovalDto removeTeam(Long teamId, Long reassignTo, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        if (teamId.equals(reassignTo)) {
+            throw new IllegalArgumentException("Cannot reassign members of team " + teamId + " to itself");
+        }
+        Team team = find(teamId);
+        Team target = reassignTo == null ? null : find(reassignTo);
+        em.flush(); // 아직 반영되지 않은 회원 변경(팀 가입 등)을 먼저 내보낸다.
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        List<Long> deletedIds = new ArrayList<>();
+        long memberCount = 0;
+        int chunks = 0;
+        while (true) {
+            List<Long> ids = em.createQuery(MEMBER_IDS, Long.class)
+                    .setParameter("teamId", teamId)
+                    .setMaxResults(chunkSize)
+                    .getResultList();
+            if (ids.isEmpty()) {
+                break;
+            }
+            memberCount += target == null
+                    ? em.createQuery(DELETE).setParameter("ids", ids).executeUpdate()
+                    : em.createQuery(REASSIGN).setParameter("target", target).setParameter("ids", ids).executeUpdate();
+            chunks++;
+            evict(session, persister, ids);
+            if (target == null) {
+                deletedIds.addAll(ids);
+            }
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+
+        Cache cache = em.getEntityManagerFactory().getCache();
+        session.getFactory().getCache().evictCollectionData(MEMBERS_ROLE, teamId);
+        if (target != null) {
+            session.getFactory().getCache().evictCollectionData(MEMBERS_ROLE, reassignTo);
+            if (Hibernate.isInitialized(target.getMembers())) {
+                em.refresh(target); // 이미 초기화된 대상 팀의 members는 옮겨온 회원이 빠져 있으므로 다시 읽는다.
+            }
+        }
+        em.remove(team);
+        cache.evict(Team.class, teamId);
+
+        teamStatsAggregate.recordTeamRemoved(teamId, reassignTo); // 팀의 회원 전체가 빠지므로 증감을 그대로 안다.
+        afterCommit(() -> deletedIds.forEach(usernamePrefixIndex::remove));
+        return new TeamRemovalDto(teamId, reassignTo, memberCount, chunks);
+    }
+
+    private Team find(Long teamId) {
+        Team team = em.find(Team.class, teamId);
+        if (team == null) {
+            throw new EmptyResultDataAccessException(
+                    String.format("No %s entity with id %s exists!", Team.class, teamId), 1);
+        }
+        return team;
+    }
+
+    /** 벌크 연산으로 DB와 달라진 회원만 영속성 컨텍스트에서 분리하고 2차 캐시에서 제거한다. */
+    private void evict(SessionImplementor session, EntityPersister persister, List<Long> ids) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                em.detach(managed);
+            }
+            cache.evict(Member.class, id);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
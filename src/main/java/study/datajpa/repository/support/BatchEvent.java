@@ -0,0 +1,21 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * [배치 모드 flush/clear 이벤트] <br/>
+ * BatchPersistenceContext가 임계치에 도달해 영속성 컨텍스트를 비울 때마다 ApplicationEvent로 발행한다.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class BatchEvent {
+    private final long sequence;            // 배치 안에서 몇 번째 flush/clear인지 (1부터)
+    private final int entitiesBefore;       // 비우기 전 관리 중이던 엔티티 수
+    private final long estimatedBytesBefore;
+    private final int detached;             // 분리(detach)한 엔티티 수
+    private final int pinned;               // pin()으로 남겨둔 엔티티 수
+    private final double flushMs;
+}
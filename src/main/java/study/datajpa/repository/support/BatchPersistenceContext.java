@@ -0,0 +1,187 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.Hibernate;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * [메모리 상한이 있는 영속성 컨텍스트 - 배치 모드] <br/>
+ * execute() 안에서는 리포지토리 호출(가장 바깥 호출)이 끝날 때마다 영속성 컨텍스트 크기를 확인하고 <br/>
+ * 관리 엔티티 수 또는 추정 메모리가 임계치 이상이면 flush 후 비운다. (pin 된 엔티티는 남긴다.) <br/>
+ * 예) batch.execute(session -> { Team team = session.pin(teamRepository.save(new Team("A"))); for (...) memberRepository.save(new Member(name, age, team)); return null; }) <br/>
+ * pin 된 엔티티의 초기화된 컬렉션(새 팀의 members 등)은 비울 때마다 refresh로 초기화되지 않은 상태로 되돌린다. (분리한 회원을 붙잡지 않도록) <br/>
+ * 추정 메모리 = 관리 엔티티 수 × 엔티티당 추정 크기(엔티티 객체 + 변경감지 스냅샷, 매핑된 속성 수 기준) <br/>
+ * datajpa.batch.max-entities, datajpa.batch.max-estimated-mb : 기본 임계치
+ */
+@Slf4j
+@Component
+@Order(400)
+public class BatchPersistenceContext implements RepositoryAdvice {
+
+    private static final ThreadLocal<BatchSession> CURRENT = new ThreadLocal<>();
+    private static final int ENTITY_OVERHEAD_BYTES = 160; // 객체 헤더, EntityEntry, EntityKey, 맵 엔트리
+    private static final int PROPERTY_BYTES = 48;         // 속성 하나의 필드 값 + 스냅샷 값 (박싱 포함)
+
+    private final EntityManager em;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int defaultMaxEntities;
+    private final long defaultMaxEstimatedBytes;
+    private final long bytesPerEntity;
+
+    public BatchPersistenceContext(EntityManager em, EntityManagerFactory emf, ApplicationEventPublisher eventPublisher,
+                                   @Value("${datajpa.batch.max-entities:5000}") int defaultMaxEntities,
+                                   @Value("${datajpa.batch.max-estimated-mb:64}") long defaultMaxEstimatedMb) {
+        this.em = em;
+        this.eventPublisher = eventPublisher;
+        this.defaultMaxEntities = defaultMaxEntities;
+        this.defaultMaxEstimatedBytes = defaultMaxEstimatedMb * 1024 * 1024;
+        this.bytesPerEntity = estimateBytesPerEntity(emf);
+    }
+
+    public <R> R execute(Function<BatchSession, R> work) {
+        return execute(defaultMaxEntities, defaultMaxEstimatedBytes, work);
+    }
+
+    /**
+     * 배치 모드로 work를 실행한다. (이미 배치 모드라면 바깥 배치 설정을 그대로 사용한다.)
+     * @param maxEntities 관리 엔티티 수 임계치
+     * @param maxEstimatedBytes 추정 메모리 임계치
+     */
+    public <R> R execute(int maxEntities, long maxEstimatedBytes, Function<BatchSession, R> work) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Batch mode requires an active transaction");
+        }
+        BatchSession outer = CURRENT.get();
+        if (outer != null) {
+            return work.apply(outer);
+        }
+        BatchSession session = new BatchSession(this, maxEntities, maxEstimatedBytes);
+        CURRENT.set(session);
+        try {
+            return work.apply(session);
+        } finally {
+            CURRENT.remove();
+            log.debug("batch finished: flushes={}, detached={}, peakEntities={}",
+                    session.getFlushes(), session.getDetached(), session.getPeakEntities());
+        }
+    }
+
+    @Override
+    public MethodInterceptor interceptorFor(RepositoryInformation repositoryInformation) {
+        return invocation -> {
+            BatchSession session = CURRENT.get();
+            if (session == null) {
+                return invocation.proceed();
+            }
+            session.depth++;
+            boolean completed = false;
+            try {
+                Object result = invocation.proceed();
+                completed = true;
+                return result;
+            } finally {
+                if (--session.depth == 0 && completed) {
+                    checkpoint(session);
+                }
+            }
+        };
+    }
+
+    void checkpoint(BatchSession session) {
+        int entities = persistenceContext().getNumberOfManagedEntities();
+        session.observed(entities);
+        if (entities >= session.getMaxEntities() || entities * bytesPerEntity >= session.getMaxEstimatedBytes()) {
+            flushAndClear(session);
+        }
+    }
+
+    void flushAndClear(BatchSession session) {
+        PersistenceContext persistenceContext = persistenceContext();
+        int entities = persistenceContext.getNumberOfManagedEntities();
+        long start = System.nanoTime();
+        em.flush(); // 비우기 전에 변경을 모두 반영하므로 준영속이 된 엔티티의 변경이 사라지지 않는다.
+        double flushMs = (System.nanoTime() - start) / 1_000_000.0;
+
+        int detached;
+        if (session.pinned.isEmpty()) {
+            detached = entities;
+            em.clear();
+        } else {
+            detached = 0;
+            for (Map.Entry<Object, EntityEntry> entry : persistenceContext.reentrantSafeEntityEntries()) {
+                if (!session.pinned.contains(entry.getKey())) {
+                    em.detach(entry.getKey());
+                    detached++;
+                }
+            }
+            for (Object pinned : session.pinned) {
+                if (holdsInitializedCollection(pinned)) {
+                    em.refresh(pinned); // 분리한 엔티티를 들고 있는 컬렉션을 초기화되지 않은 컬렉션으로 바꾼다.
+                }
+            }
+        }
+        long sequence = session.recordFlush(detached);
+        BatchEvent event = new BatchEvent(sequence, entities, entities * bytesPerEntity, detached,
+                session.pinned.size(), flushMs);
+        log.debug("batch flush/clear: {}", event);
+        eventPublisher.publishEvent(event);
+    }
+
+    /**
+     * pin 된 엔티티의 컬렉션(예: 새 팀의 members)이 초기화되어 있는지 확인한다. <br/>
+     * 초기화된 컬렉션은 분리한 엔티티를 계속 참조하므로 메모리가 줄지 않고 flush마다 다시 검사된다. <br/>
+     * (향상된 빌드에서 아직 읽지 않은 속성은 건드리지 않는다.)
+     */
+    private boolean holdsInitializedCollection(Object entity) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getEntityPersister(null, entity);
+        Type[] types = persister.getPropertyTypes();
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < types.length; i++) {
+            if (!types[i].isCollectionType() || !Hibernate.isPropertyInitialized(entity, names[i])) {
+                continue;
+            }
+            Object value = persister.getPropertyValue(entity, i);
+            if (value instanceof PersistentCollection
+                    ? ((PersistentCollection) value).wasInitialized() && !((PersistentCollection) value).empty()
+                    : value instanceof Collection && !((Collection<?>) value).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PersistenceContext persistenceContext() {
+        return em.unwrap(SessionImplementor.class).getPersistenceContextInternal();
+    }
+
+    private static long estimateBytesPerEntity(EntityManagerFactory emf) {
+        Collection<EntityPersister> persisters = emf.unwrap(SessionFactoryImplementor.class)
+                .getMetamodel().entityPersisters().values();
+        long properties = 0;
+        for (EntityPersister persister : persisters) {
+            properties += persister.getPropertyNames().length;
+        }
+        long average = persisters.isEmpty() ? 0 : properties / persisters.size();
+        return ENTITY_OVERHEAD_BYTES + average * PROPERTY_BYTES;
+    }
+}
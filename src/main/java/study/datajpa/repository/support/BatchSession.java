@@ -0,0 +1,66 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * [배치 모드 상태] BatchPersistenceContext.execute() 동안 현재 스레드에 묶인다. <br/>
+ * 임계치(관리 엔티티 수, 추정 메모리)에 도달하면 flush 후 영속성 컨텍스트를 비운다. <br/>
+ * 비운 뒤 호출자가 들고 있던 엔티티는 준영속이 되므로 <br/>
+ * - 계속 변경할 엔티티는 pin()으로 영속 상태를 유지하거나 <br/>
+ * - 변경 후 save()로 다시 넘겨 merge 결과를 사용해야 한다. (준영속 엔티티의 필드 변경은 반영되지 않는다.) <br/>
+ * 연관관계로만 참조하는 엔티티(new Member(name, age, team)의 team)는 준영속이어도 그대로 사용할 수 있다.
+ */
+public class BatchSession {
+    @Getter private final int maxEntities;
+    @Getter private final long maxEstimatedBytes;
+
+    @Getter private long flushes;       // flush/clear 횟수
+    @Getter private long detached;      // 분리한 엔티티 누적 수
+    @Getter private int peakEntities;   // 검사 시점 기준 최대 관리 엔티티 수
+
+    final Set<Object> pinned = Collections.newSetFromMap(new IdentityHashMap<>());
+    int depth; // 리포지토리 중첩 호출 깊이 (가장 바깥 호출이 끝날 때만 검사한다.)
+    private final BatchPersistenceContext context;
+
+    BatchSession(BatchPersistenceContext context, int maxEntities, long maxEstimatedBytes) {
+        this.context = context;
+        this.maxEntities = maxEntities;
+        this.maxEstimatedBytes = maxEstimatedBytes;
+    }
+
+    /**
+     * 영속성 컨텍스트를 비울 때도 영속 상태로 남긴다. (예: 반복해서 참조/변경하는 팀) <br/>
+     * 비울 때 초기화된 컬렉션이 있으면 flush 후 refresh 하므로 아직 반영하지 않은 변경이 없어야 한다.
+     */
+    public <T> T pin(T entity) {
+        pinned.add(entity);
+        return entity;
+    }
+
+    public void unpin(Object entity) {
+        pinned.remove(entity);
+    }
+
+    /** 임계치를 확인해 필요하면 flush/clear 한다. (EntityManager를 직접 사용하는 루프에서 호출) */
+    public void checkpoint() {
+        context.checkpoint(this);
+    }
+
+    /** 임계치와 관계없이 지금 flush/clear 한다. */
+    public void flushAndClear() {
+        context.flushAndClear(this);
+    }
+
+    void observed(int entities) {
+        peakEntities = Math.max(peakEntities, entities);
+    }
+
+    long recordFlush(int detachedCount) {
+        detached += detachedCount;
+        return ++flushes;
+    }
+}
@@ -0,0 +1,139 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Constructor;
+import java.util.*;
+
+/**
+ * [네이티브 쿼리 row → DTO 생성자 매핑] <br/>
+ * 컬럼 수와 파라미터 수가 같은 생성자로 row마다 DTO 하나만 만든다. (Map, 인터페이스 프록시를 거치지 않는다.) <br/>
+ * 첫 row에서 컬럼 라벨 → 생성자 파라미터 위치를 한 번 계산해 int[]로 캐시하고 이후 row는 배열 복사만 한다. <br/>
+ * 라벨과 파라미터 이름은 대소문자, '_'를 무시하고 비교한다. (TEAM_NAME, TEAMNAME = teamName) <br/>
+ * 이름을 알 수 없거나(-parameters 미적용) 맞지 않으면 select 순서대로 매핑한다. <br/>
+ * 값 타입이 다르면(BigInteger → Long 등) ConversionService로 변환한다.
+ */
+public class ConstructorMapper<T> {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final Class<T> type;
+    private final ConversionService conversionService;
+    private volatile Plan<T> plan;
+
+    public ConstructorMapper(Class<T> type) {
+        this(type, DefaultConversionService.getSharedInstance());
+    }
+
+    public ConstructorMapper(Class<T> type, ConversionService conversionService) {
+        this.type = type;
+        this.conversionService = conversionService;
+    }
+
+    public T map(Object[] tuple, String[] aliases) {
+        Plan<T> current = plan;
+        if (current == null || !current.matches(aliases)) {
+            current = plan(aliases);
+            plan = current;
+        }
+        Object[] args = new Object[current.positions.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = convert(tuple[current.positions[i]], current.parameterTypes[i], i);
+        }
+        return BeanUtils.instantiateClass(current.constructor, args);
+    }
+
+    private Object convert(Object value, Class<?> parameterType, int index) {
+        if (value == null) {
+            if (parameterType.isPrimitive()) {
+                throw new IllegalStateException("null column for primitive parameter " + index
+                        + " of " + type.getName());
+            }
+            return null;
+        }
+        if (ClassUtils.resolvePrimitiveIfNecessary(parameterType).isInstance(value)) {
+            return value;
+        }
+        return conversionService.convert(value, parameterType);
+    }
+
+    private Plan<T> plan(String[] aliases) {
+        List<Constructor<T>> candidates = new ArrayList<>();
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            if (constructor.getParameterCount() == aliases.length) {
+                @SuppressWarnings("unchecked")
+                Constructor<T> typed = (Constructor<T>) constructor;
+                candidates.add(typed);
+            }
+        }
+        if (candidates.isEmpty()) {
+            throw new IllegalStateException(type.getName() + " has no constructor with "
+                    + aliases.length + " parameters for columns " + Arrays.toString(aliases));
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < aliases.length; i++) {
+            columns.put(normalize(aliases[i]), i);
+        }
+        for (Constructor<T> constructor : candidates) {
+            int[] positions = byName(constructor, columns);
+            if (positions != null) {
+                return new Plan<>(aliases, constructor, positions);
+            }
+        }
+        if (candidates.size() > 1) {
+            throw new IllegalStateException("ambiguous " + aliases.length + "-parameter constructors of "
+                    + type.getName() + " for columns " + Arrays.toString(aliases));
+        }
+        int[] positions = new int[aliases.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        return new Plan<>(aliases, candidates.get(0), positions);
+    }
+
+    /** 파라미터 이름이 모두 컬럼 라벨과 맞으면 파라미터별 컬럼 위치, 아니면 null */
+    private static int[] byName(Constructor<?> constructor, Map<String, Integer> columns) {
+        String[] names = PARAMETER_NAMES.getParameterNames(constructor);
+        if (names == null) {
+            return null;
+        }
+        int[] positions = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Integer column = columns.get(normalize(names[i]));
+            if (column == null) {
+                return null;
+            }
+            positions[i] = column;
+        }
+        return positions;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static class Plan<T> {
+        final String[] aliases;
+        final Constructor<T> constructor;
+        final Class<?>[] parameterTypes;
+        final int[] positions;
+
+        Plan(String[] aliases, Constructor<T> constructor, int[] positions) {
+            this.aliases = aliases;
+            this.constructor = constructor;
+            this.parameterTypes = constructor.getParameterTypes();
+            this.positions = positions;
+        }
+
+        /** 같은 쿼리의 row는 같은 라벨 배열을 받으므로 대부분 참조 비교로 끝난다. */
+        boolean matches(String[] other) {
+            return aliases == other || Arrays.equals(aliases, other);
+        }
+    }
+}
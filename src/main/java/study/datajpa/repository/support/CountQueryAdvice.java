@@ -0,0 +1,107 @@
+package study.datajpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * [Page 반환 @Query 메소드의 count 쿼리 자동 최적화] <br/>
+ * countQuery를 지정하지 않은 JPQL 페이징 메소드는 CountQueryRewriter로 만든 count 쿼리를 사용한다. <br/>
+ * (Spring Data 기본 변환은 join, fetch를 그대로 두므로 countQuery를 손으로 중복 작성해야 했다.) <br/>
+ * 대상 메소드는 이 인터셉터가 직접 실행한다 : 본 쿼리(Sort 적용, offset/limit) + 필요할 때만 count (PageableExecutionUtils) <br/>
+ * 제외 : countQuery/countProjection 지정, 네이티브 쿼리, @EntityGraph/@QueryHints/@Lock, 인터페이스 프로젝션, <br/>
+ * QueryArguments로 바인딩할 수 없는 쿼리(SpEL, like %:x%, 이름을 찾을 수 없는 파라미터) → Spring Data가 실행한다. <br/>
+ * 쿼리 메소드(findByAge 등)와 Specification 페이징은 이미 order by, fetch 없는 count를 만들므로 대상이 아니다.
+ */
+@Component
+@Order(250)
+public class CountQueryAdvice implements RepositoryAdvice {
+
+    private final EntityManager em;
+    private final CountQueryRewriter rewriter;
+
+    public CountQueryAdvice(EntityManager em) {
+        this.em = em;
+        this.rewriter = new CountQueryRewriter(em.getMetamodel());
+    }
+
+    @Override
+    public MethodInterceptor interceptorFor(RepositoryInformation repositoryInformation) {
+        Map<Method, String> countQueries = new HashMap<>();
+        Map<Method, Object[]> targets = new HashMap<>();
+        for (Method method : repositoryInformation.getRepositoryInterface().getMethods()) {
+            if (!supports(method)) {
+                continue;
+            }
+            Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+            Object[] methodTargets = QueryArguments.resolve(method, query.value());
+            if (methodTargets != null) {
+                countQueries.put(method, rewriter.rewrite(query.value()));
+                targets.put(method, methodTargets);
+            }
+        }
+        if (countQueries.isEmpty()) {
+            return null;
+        }
+        return invocation -> {
+            String countQuery = countQueries.get(invocation.getMethod());
+            return countQuery == null
+                    ? invocation.proceed()
+                    : execute(invocation.getMethod(), targets.get(invocation.getMethod()),
+                            invocation.getArguments(), countQuery);
+        };
+    }
+
+    static boolean supports(Method method) {
+        Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+        if (query == null || query.nativeQuery() || !query.countQuery().isEmpty() || !query.countProjection().isEmpty()
+                || !Page.class.equals(method.getReturnType())
+                || AnnotatedElementUtils.hasAnnotation(method, EntityGraph.class)
+                || AnnotatedElementUtils.hasAnnotation(method, QueryHints.class)
+                || AnnotatedElementUtils.hasAnnotation(method, Lock.class)) {
+            return false;
+        }
+        Class<?> element = ResolvableType.forMethodReturnType(method).getGeneric(0).resolve();
+        if (element == null || element.isInterface()) {
+            return false;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (Pageable.class.isAssignableFrom(parameterType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Page<?> execute(Method method, Object[] targets, Object[] args, String countJpql) {
+        String jpql = AnnotatedElementUtils.findMergedAnnotation(method, Query.class).value();
+        Pageable pageable = QueryArguments.pageable(args);
+
+        javax.persistence.Query content = em.createQuery(
+                QueryUtils.applySorting(jpql, pageable.getSort(), QueryUtils.detectAlias(jpql)));
+        QueryArguments.bind(content, targets, args, true);
+        QueryArguments.page(content, pageable);
+        List<?> rows = content.getResultList();
+
+        return PageableExecutionUtils.getPage(rows, pageable, () -> {
+            javax.persistence.Query count = em.createQuery(countJpql);
+            QueryArguments.bind(count, targets, args, false);
+            return ((Number) count.getSingleResult()).longValue();
+        });
+    }
+}
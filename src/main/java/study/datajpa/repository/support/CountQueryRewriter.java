@@ -0,0 +1,344 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.metamodel.*;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * [count 쿼리 최적화] <br/>
+ * 페이징 JPQL에서 건수에 영향이 없는 부분을 걷어낸 count 쿼리를 만든다. <br/>
+ * 1. order by 제거 <br/>
+ * 2. fetch 제거 (join fetch → join) <br/>
+ * 3. 조건(on/with)이 없고 다른 곳에서 별칭을 쓰지 않는 단일 값 연관관계(ManyToOne, OneToOne) left join 제거 <br/>
+ * (left join은 row를 줄이지 않고, 단일 값 연관관계는 row를 늘리지 않는다.) <br/>
+ * 예) select m from Member m left join fetch m.team t order by m.age → select count(m) from Member m <br/>
+ * inner join은 연관관계가 없는 row를 걸러내므로 남긴다. <br/>
+ * group by, 여러 루트(from A a, B b), 별칭이 아닌 distinct 조회처럼 판단할 수 없는 쿼리는 Spring Data 기본 변환(QueryUtils)을 사용한다.
+ */
+public class CountQueryRewriter {
+
+    private static final Set<String> CLAUSE_KEYWORDS = new HashSet<>(Arrays.asList(
+            "where", "group", "having", "order"));
+    private static final Set<String> JOIN_KEYWORDS = new HashSet<>(Arrays.asList(
+            "left", "right", "inner", "outer", "join", "fetch", "on", "with", "as", ","));
+
+    private final Metamodel metamodel;
+
+    public CountQueryRewriter(Metamodel metamodel) {
+        this.metamodel = metamodel;
+    }
+
+    public String rewrite(String jpql) {
+        List<String> tokens = tokenize(jpql);
+        int from = indexOf(tokens, "from", 0);
+        if (tokens.isEmpty() || !is(tokens.get(0), "select") || from < 0) {
+            return QueryUtils.createCountQueryFor(jpql);
+        }
+        int end = clauseStart(tokens, from + 1);
+        int orderBy = keywordPair(tokens, end, "order", "by");
+        if (keywordPair(tokens, end, "group", "by") >= 0) {
+            return QueryUtils.createCountQueryFor(jpql);
+        }
+
+        // from Entity [as] alias
+        List<String> fromClause = tokens.subList(from + 1, end);
+        int pos = 0;
+        if (fromClause.isEmpty()) {
+            return QueryUtils.createCountQueryFor(jpql);
+        }
+        String entityName = fromClause.get(pos++);
+        if (pos < fromClause.size() && is(fromClause.get(pos), "as")) {
+            pos++;
+        }
+        if (pos >= fromClause.size() || isKeyword(fromClause.get(pos))) {
+            return QueryUtils.createCountQueryFor(jpql);
+        }
+        String rootAlias = fromClause.get(pos++);
+
+        List<Join> joins = new ArrayList<>();
+        while (pos < fromClause.size()) {
+            Join join = Join.parse(fromClause, pos);
+            if (join == null) {
+                return QueryUtils.createCountQueryFor(jpql); // 여러 루트, right join 등
+            }
+            joins.add(join);
+            pos = join.end;
+        }
+
+        String countProjection = countProjection(tokens.subList(1, from), rootAlias);
+        if (countProjection == null) {
+            return QueryUtils.createCountQueryFor(jpql);
+        }
+
+        List<String> rest = tokens.subList(end, orderBy < 0 ? tokens.size() : orderBy);
+        Map<String, ManagedType<?>> types = new HashMap<>();
+        types.put(rootAlias, entity(entityName));
+        for (Join join : joins) {
+            join.singleValued = resolve(join, types);
+        }
+        for (int i = joins.size() - 1; i >= 0; i--) { // 뒤쪽 join이 앞쪽 별칭을 참조하므로 역순으로 제거
+            Join join = joins.get(i);
+            if (join.droppable() && !referenced(join.alias, rest, joins, join)) {
+                join.dropped = true;
+            }
+        }
+
+        StringBuilder count = new StringBuilder("select ").append(countProjection)
+                .append(" from ").append(entityName).append(' ').append(rootAlias);
+        for (Join join : joins) {
+            if (!join.dropped) {
+                count.append(' ').append(join.render());
+            }
+        }
+        for (String token : rest) {
+            count.append(' ').append(token);
+        }
+        return count.toString();
+    }
+
+    /** select 절 → count(alias) / count(distinct alias). 다른 값의 distinct는 변환하지 않는다. (null) */
+    private static String countProjection(List<String> select, String rootAlias) {
+        if (!select.isEmpty() && is(select.get(0), "distinct")) {
+            return select.size() == 2 && select.get(1).equals(rootAlias)
+                    ? "count(distinct " + rootAlias + ")"
+                    : null;
+        }
+        return "count(" + rootAlias + ")";
+    }
+
+    /** join 경로의 타입을 따라가며 단일 값 연관관계인지 확인한다. (모르는 경로는 false - 남긴다.) */
+    private static boolean resolve(Join join, Map<String, ManagedType<?>> types) {
+        String[] path = join.path.split("\\.");
+        ManagedType<?> type = types.get(path[0]);
+        boolean singleValued = path.length > 1;
+        Attribute<?, ?> attribute = null;
+        for (int i = 1; i < path.length && type != null; i++) {
+            attribute = find(type, path[i]);
+            if (!(attribute instanceof SingularAttribute)) {
+                type = null; // 컬렉션 연관관계
+                singleValued = false;
+                break;
+            }
+            Type<?> next = ((SingularAttribute<?, ?>) attribute).getType();
+            type = next instanceof ManagedType ? (ManagedType<?>) next : null;
+        }
+        if (join.alias != null && type != null) {
+            types.put(join.alias, type);
+        }
+        return singleValued && type != null && attribute != null && attribute.isAssociation();
+    }
+
+    private static Attribute<?, ?> find(ManagedType<?> type, String name) {
+        for (Attribute<?, ?> attribute : type.getAttributes()) {
+            if (attribute.getName().equals(name)) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
+    private ManagedType<?> entity(String name) {
+        for (EntityType<?> entity : metamodel.getEntities()) {
+            if (entity.getName().equals(name) || entity.getJavaType().getName().equals(name)) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    /** 제거할 join 이외의 곳(where 등, 남는 join의 경로/조건)에서 별칭을 쓰는지 확인한다. */
+    private static boolean referenced(String alias, List<String> rest, List<Join> joins, Join self) {
+        if (alias == null) {
+            return false;
+        }
+        Pattern usage = Pattern.compile("(?<![\\w.:?])" + Pattern.quote(alias) + "(?![\\w])");
+        for (String token : rest) {
+            if (usage.matcher(token).find()) {
+                return true;
+            }
+        }
+        for (Join join : joins) {
+            if (join != self && !join.dropped && usage.matcher(join.referencesText()).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int clauseStart(List<String> tokens, int from) {
+        for (int i = from; i < tokens.size(); i++) {
+            if (CLAUSE_KEYWORDS.contains(tokens.get(i).toLowerCase(Locale.ROOT))) {
+                return i;
+            }
+        }
+        return tokens.size();
+    }
+
+    private static int keywordPair(List<String> tokens, int from, String first, String second) {
+        for (int i = from; i < tokens.size() - 1; i++) {
+            if (is(tokens.get(i), first) && is(tokens.get(i + 1), second)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(List<String> tokens, String keyword, int from) {
+        for (int i = from; i < tokens.size(); i++) {
+            if (is(tokens.get(i), keyword)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean is(String token, String keyword) {
+        return token.equalsIgnoreCase(keyword);
+    }
+
+    private static boolean isKeyword(String token) {
+        String lower = token.toLowerCase(Locale.ROOT);
+        return JOIN_KEYWORDS.contains(lower) || CLAUSE_KEYWORDS.contains(lower);
+    }
+
+    /**
+     * 괄호 밖(depth 0)의 단어, 기호 단위로 나눈다. <br/>
+     * 괄호 묶음과 문자열 리터럴은 통째로 하나의 토큰이다. (서브쿼리 안의 키워드는 보지 않는다.)
+     */
+    static List<String> tokenize(String jpql) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = 0; i < jpql.length(); i++) {
+            char c = jpql.charAt(i);
+            if (quoted) {
+                current.append(c);
+                if (c == '\'') {
+                    quoted = false; // '' 이스케이프는 다음 문자에서 다시 열린다.
+                }
+                continue;
+            }
+            if (c == '\'') {
+                quoted = true;
+                current.append(c);
+                continue;
+            }
+            if (depth > 0) {
+                current.append(c);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0 && !isFunctionCall(current)) {
+                    flush(tokens, current);
+                }
+                continue;
+            }
+            if (c == '(') {
+                if (!isFunctionCall(current)) {
+                    flush(tokens, current);
+                }
+                current.append(c);
+                depth++;
+            } else if (Character.isWhitespace(c)) {
+                flush(tokens, current);
+            } else if (c == ',') {
+                flush(tokens, current);
+                tokens.add(",");
+            } else {
+                current.append(c);
+            }
+        }
+        flush(tokens, current);
+        return tokens;
+    }
+
+    /** count(, upper( 처럼 이름 바로 뒤의 괄호는 함수 호출이므로 이름과 한 토큰으로 묶는다. */
+    private static boolean isFunctionCall(StringBuilder current) {
+        return current.length() > 0 && current.charAt(0) != '(';
+    }
+
+    private static void flush(List<String> tokens, StringBuilder current) {
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    /** [left|inner] [outer] join [fetch] path [[as] alias] [on|with 조건] */
+    private static class Join {
+        boolean left;
+        boolean fetch;
+        String path;
+        String alias;
+        List<String> condition = Collections.emptyList();
+        int end;
+        boolean singleValued;
+        boolean dropped;
+
+        static Join parse(List<String> tokens, int pos) {
+            Join join = new Join();
+            if (is(tokens.get(pos), "left")) {
+                join.left = true;
+                pos++;
+            } else if (is(tokens.get(pos), "inner")) {
+                pos++;
+            }
+            if (pos < tokens.size() && is(tokens.get(pos), "outer")) {
+                pos++;
+            }
+            if (pos >= tokens.size() || !is(tokens.get(pos), "join")) {
+                return null;
+            }
+            pos++;
+            if (pos < tokens.size() && is(tokens.get(pos), "fetch")) {
+                join.fetch = true;
+                pos++;
+            }
+            if (pos >= tokens.size()) {
+                return null;
+            }
+            join.path = tokens.get(pos++);
+            if (pos < tokens.size() && is(tokens.get(pos), "as")) {
+                pos++;
+            }
+            if (pos < tokens.size() && !isKeyword(tokens.get(pos))) {
+                join.alias = tokens.get(pos++);
+            }
+            if (pos < tokens.size() && (is(tokens.get(pos), "on") || is(tokens.get(pos), "with"))) {
+                int start = pos;
+                while (pos < tokens.size() && !startsJoin(tokens.get(pos)) && !",".equals(tokens.get(pos))) {
+                    pos++;
+                }
+                join.condition = tokens.subList(start, pos);
+            }
+            join.end = pos;
+            return join;
+        }
+
+        private static boolean startsJoin(String token) {
+            return is(token, "left") || is(token, "inner") || is(token, "join");
+        }
+
+        boolean droppable() {
+            return left && singleValued && condition.isEmpty();
+        }
+
+        String referencesText() {
+            return path + ' ' + String.join(" ", condition);
+        }
+
+        /** fetch를 뺀 일반 join으로 출력한다. */
+        String render() {
+            StringBuilder sb = new StringBuilder(left ? "left join " : "join ").append(path);
+            if (alias != null) {
+                sb.append(' ').append(alias);
+            }
+            for (String token : condition) {
+                sb.append(' ').append(token);
+            }
+            return sb.toString();
+        }
+    }
+}
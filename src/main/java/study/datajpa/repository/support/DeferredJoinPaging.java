@@ -0,0 +1,89 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.*;
+
+/**
+ * [Deferred Join 페이징] <br/>
+ * 깊은 offset의 정렬 페이징(findAll(pageable))은 DB가 offset만큼 전체 row를 만들었다가 버린다. <br/>
+ * 1. id만 정렬, offset/limit으로 조회한다. (인덱스만 읽고 끝날 수 있다.) <br/>
+ * 2. 그 id들의 엔티티를 in 조건 한 번으로 조회하고(FetchPlan 적용) 1번의 id 순서대로 다시 정렬한다. <br/>
+ * count 쿼리는 PageableExecutionUtils로 필요할 때만 실행한다. <br/>
+ * 같은 정렬 값의 순서는 DB가 정하므로 안정적인 페이지가 필요하면 정렬 마지막에 id를 넣는다.
+ */
+public abstract class DeferredJoinPaging {
+
+    public static <T> Page<T> findAll(EntityManager em, Class<T> domainClass, Pageable pageable, FetchPlan fetchPlan) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        SingularAttribute<? super T, ?> idAttribute = idAttribute(em, domainClass);
+
+        List<?> ids = findIds(em, domainClass, idAttribute, pageable);
+        List<T> content = ids.isEmpty()
+                ? Collections.emptyList()
+                : findByIdsInOrder(em, domainClass, idAttribute, ids, fetchPlan);
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            CriteriaQuery<Long> count = builder.createQuery(Long.class);
+            count.select(builder.count(count.from(domainClass)));
+            return em.createQuery(count).getSingleResult();
+        });
+    }
+
+    private static <T> List<?> findIds(EntityManager em, Class<T> domainClass,
+                                       SingularAttribute<? super T, ?> idAttribute, Pageable pageable) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Object> query = builder.createQuery(Object.class);
+        Root<T> root = query.from(domainClass);
+        query.select(root.get(idAttribute));
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        }
+        TypedQuery<Object> typed = em.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset());
+            typed.setMaxResults(pageable.getPageSize());
+        }
+        return typed.getResultList();
+    }
+
+    private static <T> List<T> findByIdsInOrder(EntityManager em, Class<T> domainClass,
+                                                SingularAttribute<? super T, ?> idAttribute,
+                                                List<?> ids, FetchPlan fetchPlan) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        fetchPlan.<T>toSpecification().toPredicate(root, query, builder);
+        query.select(root).where(root.get(idAttribute).in(ids));
+
+        PersistenceUnitUtil unitUtil = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        Map<Object, T> byId = new HashMap<>();
+        for (T entity : em.createQuery(query).getResultList()) {
+            byId.put(unitUtil.getIdentifier(entity), entity);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) { // 두 쿼리 사이에 삭제된 row
+                ordered.add(entity);
+            }
+        }
+        return ordered;
+    }
+
+    private static <T> SingularAttribute<? super T, ?> idAttribute(EntityManager em, Class<T> domainClass) {
+        EntityType<T> entityType = em.getMetamodel().entity(domainClass);
+        return entityType.getId(entityType.getIdType().getJavaType());
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 엔티티 타입 → 매핑된 테이블명 변환 <br/>
+ * Hibernate의 query space(엔티티가 사용하는 테이블 목록)를 소문자로 돌려준다. (예: Member → member)
+ */
+public abstract class EntityTables {
+
+    public static Set<String> of(EntityManagerFactory emf, Class<?> entityType) {
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        Set<String> tables = new LinkedHashSet<>();
+        for (Serializable space : sessionFactory.getMetamodel().entityPersister(entityType).getQuerySpaces()) {
+            tables.add(space.toString().toLowerCase(Locale.ROOT));
+        }
+        return tables;
+    }
+}
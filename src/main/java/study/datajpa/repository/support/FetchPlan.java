@@ -0,0 +1,86 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.criteria.FetchParent;
+import javax.persistence.criteria.JoinType;
+import java.util.*;
+
+/**
+ * [동적 Fetch Plan] <br/>
+ * 요청마다 함께 조회할 연관관계 경로를 지정한다. (예: /members5?expand=team) <br/>
+ * 정적으로 선언하는 @EntityGraph(attributePaths = "team") 대신 호출 시점에 fetch join 여부를 고른다. <br/>
+ * toSpecification()은 count 쿼리에는 fetch join을 걸지 않으므로 페이징 조회에도 사용할 수 있다.
+ */
+public final class FetchPlan {
+
+    public static final FetchPlan NONE = new FetchPlan(Collections.emptySet());
+
+    private final Set<String> paths;
+
+    private FetchPlan(Set<String> paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * "team", "team,other" 형태의 값을 받아 허용된 경로만 Fetch Plan으로 만든다.
+     * @param allowed 클라이언트가 선택할 수 있는 경로 (허용되지 않은 경로가 있으면 IllegalArgumentException)
+     */
+    public static FetchPlan of(Collection<String> allowed, Collection<String> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return NONE;
+        }
+        Set<String> paths = new LinkedHashSet<>();
+        for (String value : requested) {
+            for (String path : StringUtils.commaDelimitedListToStringArray(value)) {
+                String trimmed = path.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                if (!allowed.contains(trimmed)) {
+                    throw new IllegalArgumentException("expand '" + trimmed + "' is not one of " + allowed);
+                }
+                paths.add(trimmed);
+            }
+        }
+        return paths.isEmpty() ? NONE : new FetchPlan(Collections.unmodifiableSet(paths));
+    }
+
+    public static FetchPlan of(String... paths) {
+        return of(Arrays.asList(paths), Arrays.asList(paths));
+    }
+
+    public boolean includes(String path) {
+        return paths.contains(path);
+    }
+
+    public Set<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * 경로마다 left join fetch를 거는 Specification <br/>
+     * count 쿼리(결과 타입 Long)에서는 아무것도 하지 않는다. (fetch join은 count 쿼리에서 오류가 난다.)
+     */
+    public <T> Specification<T> toSpecification() {
+        return (root, query, builder) -> {
+            Class<?> resultType = query.getResultType();
+            if (Long.class.equals(resultType) || long.class.equals(resultType)) {
+                return null;
+            }
+            for (String path : paths) {
+                FetchParent<?, ?> parent = root;
+                for (String attribute : path.split("\\.")) {
+                    parent = parent.fetch(attribute, JoinType.LEFT);
+                }
+            }
+            return null;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "FetchPlan" + paths;
+    }
+}
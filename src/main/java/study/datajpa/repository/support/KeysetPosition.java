@@ -0,0 +1,46 @@
+package study.datajpa.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * [keyset 스크롤 위치] <br/>
+ * 직전 창(KeysetWindow) 마지막 row의 정렬 값들. (정렬 순서대로, 마지막은 id) <br/>
+ * 다음 조회는 이 값 "다음" row부터 시작한다. (offset 없음) <br/>
+ * 클라이언트가 문자열로 넘긴 값도 사용할 수 있다. (조회 시 정렬 속성 타입으로 변환한다.)
+ */
+public final class KeysetPosition {
+
+    private static final KeysetPosition INITIAL = new KeysetPosition(Collections.emptyList());
+
+    private final List<Object> values;
+
+    private KeysetPosition(List<Object> values) {
+        this.values = values;
+    }
+
+    /** 처음부터 */
+    public static KeysetPosition initial() {
+        return INITIAL;
+    }
+
+    public static KeysetPosition after(List<?> values) {
+        return values == null || values.isEmpty()
+                ? INITIAL
+                : new KeysetPosition(Collections.unmodifiableList(new ArrayList<>(values)));
+    }
+
+    public boolean isInitial() {
+        return values.isEmpty();
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetPosition" + values;
+    }
+}
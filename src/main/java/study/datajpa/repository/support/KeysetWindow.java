@@ -0,0 +1,38 @@
+package study.datajpa.repository.support;
+
+import java.util.List;
+
+/**
+ * [keyset 스크롤 결과] <br/>
+ * size + 1건을 조회해 다음 창이 있는지 판단한다. (count 쿼리 없음) <br/>
+ * next : 마지막 row의 위치 - 다음 창 조회에 그대로 넘긴다. (빈 창이면 요청한 위치)
+ */
+public class KeysetWindow<R> {
+
+    private final List<R> content;
+    private final boolean hasNext;
+    private final KeysetPosition next;
+
+    KeysetWindow(List<R> content, boolean hasNext, KeysetPosition next) {
+        this.content = content;
+        this.hasNext = hasNext;
+        this.next = next;
+    }
+
+    public List<R> getContent() {
+        return content;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /** Slice.isLast()와 같다. (JSON 응답의 last) */
+    public boolean isLast() {
+        return !hasNext;
+    }
+
+    public KeysetPosition getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,132 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.transform.ResultTransformer;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * [네이티브 쿼리 DTO 반환 지원] <br/>
+ * 네이티브 @Query가 List, Page로 클래스(DTO)를 반환하면 Spring Data 대신 이 인터셉터가 실행한다. <br/>
+ * Spring Data는 네이티브 결과를 Tuple → Map 기반 프록시(인터페이스 프로젝션)로 감싸 row마다 여러 객체를 만들지만 <br/>
+ * 여기서는 ResultTransformer에서 ConstructorMapper로 바로 생성자를 호출한다. (row당 DTO 하나) <br/>
+ * Page는 countQuery가 필수이다. (네이티브 SQL은 count 쿼리를 안전하게 유도할 수 없다.) <br/>
+ * Sort는 QueryUtils.applySorting으로 order by를 붙이고 Pageable은 offset/limit을 적용한다. <br/>
+ * 엔티티, 인터페이스, 단순 값(String, Long 등) 반환은 대상이 아니다. <br/>
+ * Spring Data는 네이티브 DTO를 반환하지 못하므로 QueryArguments로 바인딩할 수 없는 쿼리(SpEL, like %:x%, <br/>
+ * 이름을 찾을 수 없는 파라미터)는 위임하지 않고 시작 시점에 실패한다.
+ */
+@Component
+@Order(210)
+@RequiredArgsConstructor
+public class NativeDtoQueryAdvice implements RepositoryAdvice {
+
+    private final EntityManager em;
+
+    @Override
+    public MethodInterceptor interceptorFor(RepositoryInformation repositoryInformation) {
+        Map<Method, ConstructorMapper<?>> mappers = new HashMap<>();
+        Map<Method, Object[]> targets = new HashMap<>();
+        for (Method method : repositoryInformation.getRepositoryInterface().getMethods()) {
+            Class<?> dtoType = dtoType(method);
+            if (dtoType == null) {
+                continue;
+            }
+            Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+            if (Page.class.equals(method.getReturnType()) && query.countQuery().isEmpty()) {
+                throw new IllegalStateException("Native DTO page requires countQuery: " + method);
+            }
+            Object[] methodTargets = QueryArguments.resolve(method, query.value());
+            if (methodTargets == null || QueryArguments.requiresRewriting(query.countQuery())) {
+                throw new IllegalStateException("Native DTO query must bind every argument by @Param, "
+                        + "parameter name or position without SpEL or like wildcards: " + method);
+            }
+            mappers.put(method, new ConstructorMapper<>(dtoType));
+            targets.put(method, methodTargets);
+        }
+        if (mappers.isEmpty()) {
+            return null;
+        }
+        return invocation -> {
+            ConstructorMapper<?> mapper = mappers.get(invocation.getMethod());
+            return mapper == null
+                    ? invocation.proceed()
+                    : execute(invocation.getMethod(), targets.get(invocation.getMethod()),
+                            invocation.getArguments(), mapper);
+        };
+    }
+
+    /** 대상 메소드이면 DTO 타입, 아니면 null */
+    static Class<?> dtoType(Method method) {
+        Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+        if (query == null || !query.nativeQuery()
+                || !(List.class.equals(method.getReturnType()) || Page.class.equals(method.getReturnType()))) {
+            return null;
+        }
+        Class<?> element = ResolvableType.forMethodReturnType(method).getGeneric(0).resolve();
+        if (element == null || element.isInterface() || element.isArray() || Object.class.equals(element)
+                || BeanUtils.isSimpleValueType(element) || element.isAnnotationPresent(Entity.class)) {
+            return null;
+        }
+        return element;
+    }
+
+    @SuppressWarnings("deprecation")
+    private Object execute(Method method, Object[] targets, Object[] args, ConstructorMapper<?> mapper) {
+        Query annotation = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+        Pageable pageable = QueryArguments.pageable(args);
+        String sql = QueryUtils.applySorting(annotation.value(), pageable.getSort(),
+                QueryUtils.detectAlias(annotation.value()));
+
+        javax.persistence.Query content = em.createNativeQuery(sql);
+        QueryArguments.bind(content, targets, args, true);
+        QueryArguments.page(content, pageable);
+        content.unwrap(org.hibernate.query.Query.class).setResultTransformer(new ConstructorTransformer(mapper));
+        List<?> rows = content.getResultList();
+
+        if (!Page.class.equals(method.getReturnType())) {
+            return rows;
+        }
+        return PageableExecutionUtils.getPage(rows, pageable, () -> {
+            javax.persistence.Query count = em.createNativeQuery(annotation.countQuery());
+            QueryArguments.bind(count, targets, args, false);
+            return ((Number) count.getSingleResult()).longValue();
+        });
+    }
+
+    private static class ConstructorTransformer implements ResultTransformer {
+        private final ConstructorMapper<?> mapper;
+
+        ConstructorTransformer(ConstructorMapper<?> mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public Object transformTuple(Object[] tuple, String[] aliases) {
+            return mapper.map(tuple, aliases);
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public List transformList(List collection) {
+            return collection;
+        }
+    }
+}
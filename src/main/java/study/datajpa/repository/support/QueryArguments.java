@@ -0,0 +1,135 @@
+package study.datajpa.repository.support;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 리포지토리 메소드 인자를 직접 만든 Query에 바인딩한다. (RepositoryAdvice가 @Query를 직접 실행할 때 사용) <br/>
+ * 1. resolve : 인자마다 바인딩 대상을 정한다. (시작 시점에 한번) <br/>
+ * - 쿼리가 이름 파라미터(:name)를 쓰면 @Param 값, 없으면 컴파일된 파라미터 이름(-parameters)으로 찾는다. (Spring Data와 동일) <br/>
+ * - 위치 파라미터(?1, 네이티브 ?)는 Pageable, Sort를 뺀 인자 순서 <br/>
+ * - Spring Data가 쿼리를 고쳐 쓰는 문법(SpEL :#{...}, like %:x%)이 있거나 쿼리 파라미터와 맞지 않는 인자가 있으면 null <br/>
+ * → 직접 실행하지 않고 Spring Data에 맡긴다. (또는 시작 시점에 실패) <br/>
+ * 2. bind : 본 쿼리는 모든 인자가 바인딩되어야 한다. count 쿼리는 쿼리에 없는 파라미터를 건너뛴다.
+ */
+public abstract class QueryArguments {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+    private static final Pattern SPEL = Pattern.compile("[:?]#\\{");
+    private static final Pattern LIKE_WILDCARD = Pattern.compile("\\blike\\s+(?:%\\s*[:?]|[:?]\\w*%)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NAMED = Pattern.compile("(?<![:\\w]):([a-zA-Z_]\\w*)");
+    private static final Pattern POSITIONAL = Pattern.compile("\\?(\\d*)");
+
+    /** Spring Data가 실행 전에 쿼리를 고쳐 쓰는 문법(SpEL, like 와일드카드 파라미터)이 있는지 */
+    public static boolean requiresRewriting(String query) {
+        return SPEL.matcher(query).find() || LIKE_WILDCARD.matcher(query).find();
+    }
+
+    /**
+     * 인자별 바인딩 대상 (String : 이름, Integer : 위치, null : Pageable/Sort) <br/>
+     * 직접 실행할 수 없는 쿼리이면 null
+     */
+    public static Object[] resolve(Method method, String query) {
+        if (requiresRewriting(query)) {
+            return null;
+        }
+        String withoutLiterals = STRING_LITERAL.matcher(query).replaceAll("''");
+        Set<String> names = new HashSet<>();
+        Matcher named = NAMED.matcher(withoutLiterals);
+        while (named.find()) {
+            names.add(named.group(1));
+        }
+        int positions = 0;
+        Matcher positional = POSITIONAL.matcher(withoutLiterals);
+        while (positional.find()) {
+            positions = positional.group(1).isEmpty()
+                    ? positions + 1
+                    : Math.max(positions, Integer.parseInt(positional.group(1)));
+        }
+
+        String[] discovered = PARAMETER_NAMES.getParameterNames(method);
+        Class<?>[] types = method.getParameterTypes();
+        Object[] targets = new Object[types.length];
+        Set<String> bound = new HashSet<>();
+        int position = 0;
+        for (int i = 0; i < types.length; i++) {
+            if (Pageable.class.isAssignableFrom(types[i]) || Sort.class.isAssignableFrom(types[i])) {
+                continue;
+            }
+            position++;
+            if (names.isEmpty()) {
+                if (position > positions) {
+                    return null;
+                }
+                targets[i] = position;
+                continue;
+            }
+            Param param = new MethodParameter(method, i).getParameterAnnotation(Param.class);
+            String name = param != null ? param.value() : discovered == null ? null : discovered[i];
+            if (name == null || !names.contains(name)) {
+                return null;
+            }
+            targets[i] = name;
+            bound.add(name);
+        }
+        return bound.equals(names) ? targets : null;
+    }
+
+    /**
+     * resolve 결과대로 바인딩한다. <br/>
+     * requireAll : 쿼리에 없는 인자가 있으면 예외 (본 쿼리), false면 건너뛴다. (count 쿼리에서 빠진 조건 등)
+     */
+    public static void bind(Query query, Object[] targets, Object[] args, boolean requireAll) {
+        Set<Object> declared = new HashSet<>();
+        for (Parameter<?> parameter : query.getParameters()) {
+            declared.add(parameter.getName() != null ? parameter.getName() : parameter.getPosition());
+        }
+        for (int i = 0; i < args.length; i++) {
+            Object target = targets[i];
+            if (target == null) {
+                continue;
+            }
+            if (declared.contains(target)) {
+                if (target instanceof String) {
+                    query.setParameter((String) target, args[i]);
+                } else {
+                    query.setParameter((Integer) target, args[i]);
+                }
+            } else if (requireAll) {
+                throw new IllegalStateException("Argument " + i + " (" + target + ") is not a parameter of the query");
+            }
+        }
+    }
+
+    /** 인자 중 Pageable (없으면 unpaged) */
+    public static Pageable pageable(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Pageable) {
+                return (Pageable) arg;
+            }
+        }
+        return Pageable.unpaged();
+    }
+
+    /** offset/limit 적용 */
+    public static void page(Query query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.data.repository.core.RepositoryInformation;
+
+/**
+ * 리포지토리 프록시에 끼워넣을 부가기능(Advice) <br/>
+ * 스프링 빈으로 등록하면 RepositoryAdviceRegistrar가 모든 Spring Data 리포지토리 프록시 생성 시점에 호출한다. <br/>
+ * 여러 Advice 간의 순서는 @Order로 지정한다.
+ */
+public interface RepositoryAdvice {
+
+    /**
+     * 리포지토리 하나에 적용할 인터셉터를 반환한다. <br/>
+     * 해당 리포지토리에 적용할 필요가 없다면 null을 반환한다.
+     * @param repositoryInformation 리포지토리 인터페이스, 도메인 타입 정보
+     */
+    MethodInterceptor interceptorFor(RepositoryInformation repositoryInformation);
+}
@@ -0,0 +1,42 @@
+package study.datajpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * [리포지토리 프록시 확장] <br/>
+ * Spring Data가 리포지토리 프록시를 만들기 전(FactoryBean 초기화 전)에 RepositoryProxyPostProcessor를 추가한다. <br/>
+ * 등록된 RepositoryAdvice 빈들의 인터셉터가 트랜잭션 인터셉터 안쪽, 쿼리 실행 바깥쪽에서 호출된다. <br/>
+ * (@Query, 쿼리 메소드, 사용자 정의 구현체(Impl) 호출 모두 같은 프록시를 통과한다.)
+ */
+@Component
+public class RepositoryAdviceRegistrar implements BeanPostProcessor, BeanFactoryAware {
+
+    private BeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            beanFactory.getBeanProvider(RepositoryAdvice.class).orderedStream()
+                                    .forEach(advice -> {
+                                        MethodInterceptor interceptor = advice.interceptorFor(repositoryInformation);
+                                        if (interceptor != null) {
+                                            proxyFactory.addAdvice(interceptor);
+                                        }
+                                    })));
+        }
+        return bean;
+    }
+}
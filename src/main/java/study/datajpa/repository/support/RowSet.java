@@ -0,0 +1,469 @@
+package study.datajpa.repository.support;
+
+import java.util.*;
+
+/**
+ * [컬럼 기반 조회 결과] <br/>
+ * List<'Map<String,Object>>는 row마다 Map과 key 테이블을 새로 만든다. <br/>
+ * RowSet은 컬럼명 → 인덱스 스키마를 모든 row가 공유하고, 값은 컬럼별 배열에 저장한다. <br/>
+ * 정수/실수 컬럼(예: age)은 int[], long[], double[]에 박싱 없이 보관하고 null은 BitSet으로 표시한다. <br/>
+ * 리포지토리 @Query(JPQL, nativeQuery) 메소드의 반환 타입으로 사용할 수 있다.
+ * <pre>
+ * RowSet rows = memberRepository.findUserNameListOfRows();
+ * for (RowSet.Row row : rows) {
+ *     row.getString("username"); row.getInt("age");
+ * }
+ * </pre>
+ */
+public final class RowSet implements Iterable<RowSet.Row> {
+
+    private final String[] columnNames;
+    private final Map<String, Integer> columnIndexes;
+    private final Column[] columns;
+    private final int size;
+
+    private RowSet(String[] columnNames, Map<String, Integer> columnIndexes, Column[] columns, int size) {
+        this.columnNames = columnNames;
+        this.columnIndexes = columnIndexes;
+        this.columns = columns;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(Arrays.asList(columnNames));
+    }
+
+    /** 컬럼명으로 인덱스 조회 (대소문자 구분 없음, 네이티브 쿼리는 DB가 대문자 라벨을 돌려준다.) */
+    public int columnIndex(String name) {
+        Integer index = columnIndexes.get(name.toLowerCase(Locale.ROOT));
+        if (index == null) {
+            throw new IllegalArgumentException("No column '" + name + "' in " + Arrays.toString(columnNames));
+        }
+        return index;
+    }
+
+    public boolean isNull(int row, int column) {
+        return columns[column].isNull(checkRow(row));
+    }
+
+    public Object get(int row, int column) {
+        return columns[column].get(checkRow(row));
+    }
+
+    public String getString(int row, int column) {
+        Object value = get(row, column);
+        return value == null ? null : value.toString();
+    }
+
+    /** null이면 0을 반환한다. (ResultSet.getInt와 동일) */
+    public int getInt(int row, int column) {
+        return columns[column].getInt(checkRow(row));
+    }
+
+    public long getLong(int row, int column) {
+        return columns[column].getLong(checkRow(row));
+    }
+
+    public double getDouble(int row, int column) {
+        return columns[column].getDouble(checkRow(row));
+    }
+
+    /**
+     * row 커서 <br/>
+     * 같은 Row 인스턴스를 재사용하므로 다음 row로 넘어간 뒤에는 이전 값을 읽을 수 없다.
+     */
+    @Override
+    public Iterator<Row> iterator() {
+        Row cursor = new Row();
+        return new Iterator<Row>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.index + 1 < size;
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                cursor.index++;
+                return cursor;
+            }
+        };
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+        return row;
+    }
+
+    /** 현재 row를 가리키는 커서 */
+    public final class Row {
+        private int index = -1;
+
+        public int index() {
+            return index;
+        }
+
+        public boolean isNull(String column) {
+            return RowSet.this.isNull(index, columnIndex(column));
+        }
+
+        public Object get(String column) {
+            return RowSet.this.get(index, columnIndex(column));
+        }
+
+        public String getString(String column) {
+            return RowSet.this.getString(index, columnIndex(column));
+        }
+
+        public int getInt(String column) {
+            return RowSet.this.getInt(index, columnIndex(column));
+        }
+
+        public long getLong(String column) {
+            return RowSet.this.getLong(index, columnIndex(column));
+        }
+
+        public double getDouble(String column) {
+            return RowSet.this.getDouble(index, columnIndex(column));
+        }
+    }
+
+    public static Builder builder(String[] columnNames) {
+        return new Builder(columnNames);
+    }
+
+    /**
+     * row 단위로 값을 받아 컬럼 배열에 쌓는다. <br/>
+     * 컬럼 타입은 처음 들어온 null이 아닌 값으로 정하고, 이후 다른 타입이 섞이면 Object 배열로 전환한다.
+     */
+    public static final class Builder {
+        private final String[] columnNames;
+        private final Map<String, Integer> columnIndexes = new HashMap<>();
+        private final Column[] columns;
+        private int size;
+
+        private Builder(String[] columnNames) {
+            this.columnNames = columnNames.clone();
+            this.columns = new Column[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                if (this.columnNames[i] == null) {
+                    this.columnNames[i] = "col_" + i; // 별칭(as)이 없는 JPQL 컬럼
+                }
+                columnIndexes.putIfAbsent(this.columnNames[i].toLowerCase(Locale.ROOT), i);
+                columns[i] = new NullColumn();
+            }
+        }
+
+        public Builder add(Object[] row) {
+            if (row.length != columns.length) {
+                throw new IllegalArgumentException("expected " + columns.length + " columns but got " + row.length);
+            }
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = columns[i].append(size, row[i]);
+            }
+            size++;
+            return this;
+        }
+
+        public RowSet build() {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = columns[i].trim(size);
+            }
+            return new RowSet(columnNames, columnIndexes, columns, size);
+        }
+    }
+
+    //=== 컬럼 저장소 ===//
+
+    private abstract static class Column {
+        /** row번째 값을 추가한다. 타입이 맞지 않으면 전환된 컬럼을 반환한다. */
+        abstract Column append(int row, Object value);
+
+        abstract Object get(int row);
+
+        abstract Column trim(int size);
+
+        boolean isNull(int row) {
+            return get(row) == null;
+        }
+
+        int getInt(int row) {
+            Object value = get(row);
+            return value == null ? 0 : ((Number) value).intValue();
+        }
+
+        long getLong(int row) {
+            Object value = get(row);
+            return value == null ? 0L : ((Number) value).longValue();
+        }
+
+        double getDouble(int row) {
+            Object value = get(row);
+            return value == null ? 0.0 : ((Number) value).doubleValue();
+        }
+
+        Column toObjectColumn(int rows) {
+            Object[] values = new Object[Math.max(16, rows * 2)];
+            for (int i = 0; i < rows; i++) {
+                values[i] = get(i);
+            }
+            return new ObjectColumn(values);
+        }
+
+        /** row를 담을 수 있는 배열 길이 (부족하면 두 배씩 늘린다.) */
+        static int capacity(int length, int row) {
+            return row < length ? length : Math.max(row + 1, Math.max(16, length * 2));
+        }
+    }
+
+    /** 아직 null만 들어온 컬럼 */
+    private static final class NullColumn extends Column {
+        @Override
+        Column append(int row, Object value) {
+            if (value == null) {
+                return this;
+            }
+            Column typed;
+            if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                typed = new IntColumn(row);
+            } else if (value instanceof Long) {
+                typed = new LongColumn(row);
+            } else if (value instanceof Double || value instanceof Float) {
+                typed = new DoubleColumn(row);
+            } else {
+                typed = toObjectColumn(row);
+            }
+            return typed.append(row, value);
+        }
+
+        @Override
+        Object get(int row) {
+            return null;
+        }
+
+        @Override
+        Column trim(int size) {
+            return this;
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+        private Object[] values;
+
+        ObjectColumn(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        Column append(int row, Object value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, capacity(values.length, row));
+            }
+            values[row] = value;
+            return this;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        Column trim(int size) {
+            values = Arrays.copyOf(values, size);
+            return this;
+        }
+    }
+
+    /** 원시 타입 컬럼 공통 : null 여부를 BitSet으로 관리 */
+    private abstract static class PrimitiveColumn extends Column {
+        final BitSet nulls = new BitSet();
+
+        PrimitiveColumn(int leadingNulls) {
+            nulls.set(0, leadingNulls);
+        }
+
+        @Override
+        final Column append(int row, Object value) {
+            if (value == null) {
+                nulls.set(row);
+                ensureCapacity(row);
+                return this;
+            }
+            if (!accepts(value)) {
+                return toObjectColumn(row).append(row, value);
+            }
+            ensureCapacity(row);
+            set(row, (Number) value);
+            return this;
+        }
+
+        @Override
+        final boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        @Override
+        final Object get(int row) {
+            return nulls.get(row) ? null : box(row);
+        }
+
+        abstract boolean accepts(Object value);
+
+        abstract void ensureCapacity(int row);
+
+        abstract void set(int row, Number value);
+
+        abstract Object box(int row);
+    }
+
+    private static final class IntColumn extends PrimitiveColumn {
+        private int[] values = new int[16];
+
+        IntColumn(int leadingNulls) {
+            super(leadingNulls);
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Integer || value instanceof Short || value instanceof Byte;
+        }
+
+        @Override
+        void ensureCapacity(int row) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, capacity(values.length, row));
+            }
+        }
+
+        @Override
+        void set(int row, Number value) {
+            values[row] = value.intValue();
+        }
+
+        @Override
+        Object box(int row) {
+            return values[row];
+        }
+
+        @Override
+        int getInt(int row) {
+            return values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        Column trim(int size) {
+            values = Arrays.copyOf(values, size);
+            return this;
+        }
+    }
+
+    private static final class LongColumn extends PrimitiveColumn {
+        private long[] values = new long[16];
+
+        LongColumn(int leadingNulls) {
+            super(leadingNulls);
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Long;
+        }
+
+        @Override
+        void ensureCapacity(int row) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, capacity(values.length, row));
+            }
+        }
+
+        @Override
+        void set(int row, Number value) {
+            values[row] = value.longValue();
+        }
+
+        @Override
+        Object box(int row) {
+            return values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        Column trim(int size) {
+            values = Arrays.copyOf(values, size);
+            return this;
+        }
+    }
+
+    private static final class DoubleColumn extends PrimitiveColumn {
+        private double[] values = new double[16];
+
+        DoubleColumn(int leadingNulls) {
+            super(leadingNulls);
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Double || value instanceof Float;
+        }
+
+        @Override
+        void ensureCapacity(int row) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, capacity(values.length, row));
+            }
+        }
+
+        @Override
+        void set(int row, Number value) {
+            values[row] = value.doubleValue();
+        }
+
+        @Override
+        Object box(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        Column trim(int size) {
+            values = Arrays.copyOf(values, size);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.transform.ResultTransformer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * [RowSet 반환 타입 지원] <br/>
+ * 반환 타입이 RowSet인 @Query 메소드는 Spring Data 쿼리 실행 대신 이 인터셉터가 실행한다. <br/>
+ * Hibernate ResultTransformer로 row(Object[])를 받는 즉시 RowSet 컬럼 배열에 옮기므로 <br/>
+ * row마다 Map이나 프록시를 만들지 않는다. <br/>
+ * 파라미터 바인딩 : QueryArguments (@Param 또는 파라미터 이름으로 :name, 없으면 위치 ?1, 네이티브 ?) <br/>
+ * Spring Data는 RowSet을 반환하지 못하므로 바인딩할 수 없는 쿼리(SpEL, like %:x%, 이름을 찾을 수 없는 파라미터)는 <br/>
+ * 시작 시점에 실패한다. <br/>
+ * Spring Data는 Pageable 파라미터 메소드의 반환 타입을 Slice, Page, List로 제한하므로 (시작 시점 검증) <br/>
+ * 페이징은 쿼리에 offset, limit 파라미터를 직접 선언한다. (예: ... limit :limit offset :offset) <br/>
+ * 컬럼명은 select 절의 별칭으로 정하므로 결과가 0건이어도 columnIndex로 조회할 수 있다.
+ */
+@Component
+@Order(200)
+@RequiredArgsConstructor
+public class RowSetQueryAdvice implements RepositoryAdvice {
+
+    private final EntityManager em;
+
+    @Override
+    public MethodInterceptor interceptorFor(RepositoryInformation repositoryInformation) {
+        Map<Method, Object[]> targets = new HashMap<>();
+        for (Method method : repositoryInformation.getRepositoryInterface().getMethods()) {
+            if (RowSet.class.equals(method.getReturnType())) {
+                if (!AnnotatedElementUtils.hasAnnotation(method, Query.class)) {
+                    throw new IllegalStateException("RowSet return type requires @Query: " + method);
+                }
+                for (Class<?> parameterType : method.getParameterTypes()) {
+                    if (Pageable.class.isAssignableFrom(parameterType) || Sort.class.isAssignableFrom(parameterType)) {
+                        throw new IllegalStateException("RowSet method takes offset/limit query parameters "
+                                + "instead of Pageable or Sort: " + method);
+                    }
+                }
+                Object[] methodTargets = QueryArguments.resolve(method,
+                        AnnotatedElementUtils.findMergedAnnotation(method, Query.class).value());
+                if (methodTargets == null) {
+                    throw new IllegalStateException("RowSet query must bind every argument by @Param, "
+                            + "parameter name or position without SpEL or like wildcards: " + method);
+                }
+                targets.put(method, methodTargets);
+            }
+        }
+        if (targets.isEmpty()) {
+            return null;
+        }
+        return invocation -> {
+            Object[] methodTargets = targets.get(invocation.getMethod());
+            return methodTargets == null
+                    ? invocation.proceed()
+                    : execute(invocation.getMethod(), methodTargets, invocation.getArguments());
+        };
+    }
+
+    @SuppressWarnings("deprecation")
+    private RowSet execute(Method method, Object[] targets, Object[] args) {
+        Query annotation = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+        javax.persistence.Query query = annotation.nativeQuery()
+                ? em.createNativeQuery(annotation.value())
+                : em.createQuery(annotation.value());
+        QueryArguments.bind(query, targets, args, true);
+
+        org.hibernate.query.Query<?> hibernateQuery = query.unwrap(org.hibernate.query.Query.class);
+        String[] aliases = annotation.nativeQuery()
+                ? selectAliases(annotation.value())
+                : hibernateQuery.getReturnAliases();
+        RowSetCollector collector = new RowSetCollector(aliases);
+        hibernateQuery.setResultTransformer(collector);
+        query.getResultList();
+        return collector.build();
+    }
+
+    /**
+     * 네이티브 SQL select 절의 컬럼명 (별칭 as x, 공백 뒤 별칭, 없으면 마지막 . 뒤 컬럼명) <br/>
+     * 괄호, 따옴표 안의 쉼표는 구분자로 보지 않는다. 알 수 없는 항목(*, 식)은 null (RowSet에서 col_번호)
+     */
+    static String[] selectAliases(String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        int start = lower.indexOf("select");
+        if (start < 0) {
+            return new String[0];
+        }
+        start += "select".length();
+        List<String> items = new ArrayList<>();
+        int depth = 0;
+        boolean quoted = false;
+        int from = start;
+        for (int i = start; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                quoted = !quoted;
+            } else if (quoted) {
+                continue;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && c == ',') {
+                items.add(sql.substring(from, i));
+                from = i + 1;
+            } else if (depth == 0 && Character.isWhitespace(c) && lower.startsWith("from", i + 1)
+                    && (i + 5 >= sql.length() || Character.isWhitespace(sql.charAt(i + 5)))) {
+                items.add(sql.substring(from, i));
+                from = -1;
+                break;
+            }
+        }
+        if (from >= 0) {
+            items.add(sql.substring(from));
+        }
+
+        String[] aliases = new String[items.size()];
+        for (int i = 0; i < aliases.length; i++) {
+            String item = items.get(i).trim();
+            if (i == 0 && item.toLowerCase(Locale.ROOT).startsWith("distinct ")) {
+                item = item.substring("distinct ".length()).trim();
+            }
+            String[] tokens = item.split("\\s+");
+            if (tokens.length > 1) {
+                String last = tokens[tokens.length - 1].replace("\"", "");
+                String previous = tokens[tokens.length - 2];
+                boolean alias = previous.equalsIgnoreCase("as") || previous.matches(".*[\\w)\"]");
+                aliases[i] = alias && last.matches("\\w+") ? last : null; // as x, 또는 공백 뒤 별칭
+            } else {
+                String column = item.substring(item.lastIndexOf('.') + 1);
+                aliases[i] = column.matches("\\w+") ? column : null;
+            }
+        }
+        return aliases;
+    }
+
+    /**
+     * row를 받을 때마다 RowSet.Builder에 쌓고 null을 반환한다. <br/>
+     * (Hibernate가 만드는 결과 List에는 row별 객체가 남지 않는다.)
+     */
+    private static class RowSetCollector implements ResultTransformer {
+        private final String[] queryAliases;
+        private RowSet.Builder builder;
+
+        RowSetCollector(String[] queryAliases) {
+            this.queryAliases = queryAliases == null ? new String[0] : queryAliases;
+        }
+
+        @Override
+        public Object transformTuple(Object[] tuple, String[] aliases) {
+            if (builder == null) {
+                builder = RowSet.builder(aliases == null ? queryAliases : aliases);
+            }
+            builder.add(tuple);
+            return null;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public List transformList(List collection) {
+            return collection;
+        }
+
+        RowSet build() {
+            return builder == null ? RowSet.builder(queryAliases).build() : builder.build(); // 0건 : select 절 별칭
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Slice 반환 리포지토리 메소드를 순차 스캔하는 SliceScan 생성기 <br/>
+ * 예) prefetcher.scan(pageRequest -> memberRepository.findSliceByAge(10, pageRequest), PageRequest.of(0, 100)) <br/>
+ * 각 Slice는 prefetch 전용 스레드에서 읽기 전용 트랜잭션으로 조회된다. <br/>
+ * datajpa.slice-prefetch.depth : 미리 조회할 Slice 수 (기본 1) <br/>
+ * datajpa.slice-prefetch.threads : 백그라운드 조회 스레드 수 (동시에 점유하는 커넥션 수)
+ */
+@Component
+public class SlicePrefetcher {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final int defaultDepth;
+
+    public SlicePrefetcher(PlatformTransactionManager transactionManager,
+                           @Value("${datajpa.slice-prefetch.depth:1}") int defaultDepth,
+                           @Value("${datajpa.slice-prefetch.threads:4}") int threads) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.defaultDepth = defaultDepth;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "slice-prefetch-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> SliceScan<T> scan(Function<PageRequest, Slice<T>> query, PageRequest first) {
+        return scan(query, first, defaultDepth);
+    }
+
+    public <T> SliceScan<T> scan(Function<PageRequest, Slice<T>> query, PageRequest first, int depth) {
+        return new SliceScan<>(query, first, depth,
+                task -> executor.submit(() -> readOnlyTransaction.execute(status -> task.get())));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,111 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * [Slice 순차 스캔 + 다음 Slice 미리 조회] <br/>
+ * 호출자가 현재 Slice를 처리하는 동안 다음 depth개의 Slice를 백그라운드 스레드(별도 커넥션)에서 미리 조회한다. <br/>
+ * 페이지 번호 기반 조회는 서로 독립적이므로 hasNext()를 기다리지 않고 앞서 요청하고, <br/>
+ * hasNext()가 false인 Slice를 만나면 남은 요청을 취소한다. <br/>
+ * 반드시 close() 해야 한다. (try-with-resources 또는 stream()의 onClose)
+ * @param <T> Slice 내용 타입 (백그라운드 트랜잭션에서 조회되므로 준영속 상태이다.)
+ */
+public class SliceScan<T> implements Iterator<Slice<T>>, AutoCloseable {
+
+    private final Function<PageRequest, Slice<T>> query;
+    private final Function<Supplier<Slice<T>>, Future<Slice<T>>> submitter;
+    private final int depth;
+    private final Deque<Future<Slice<T>>> pending = new ArrayDeque<>();
+
+    private PageRequest nextRequest;
+    private boolean exhausted;
+
+    SliceScan(Function<PageRequest, Slice<T>> query, PageRequest first, int depth,
+              Function<Supplier<Slice<T>>, Future<Slice<T>>> submitter) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("prefetch depth must be at least 1: " + depth);
+        }
+        this.query = query;
+        this.nextRequest = first;
+        this.depth = depth;
+        this.submitter = submitter;
+        fill();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !pending.isEmpty();
+    }
+
+    @Override
+    public Slice<T> next() {
+        Future<Slice<T>> head = pending.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        Slice<T> slice = await(head);
+        if (slice.hasNext()) {
+            fill();
+        } else {
+            exhausted = true;
+            cancelPending();
+        }
+        return slice;
+    }
+
+    /**
+     * Slice 내용을 하나의 Stream으로 이어서 반환한다. Stream을 닫으면 남은 미리 조회도 취소된다.
+     */
+    public Stream<T> stream() {
+        Iterable<Slice<T>> slices = () -> this;
+        return StreamSupport.stream(slices.spliterator(), false)
+                .flatMap(slice -> slice.getContent().stream())
+                .onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        exhausted = true;
+        cancelPending();
+    }
+
+    private void fill() {
+        while (!exhausted && pending.size() < depth) {
+            PageRequest request = nextRequest;
+            pending.add(submitter.apply(() -> query.apply(request)));
+            nextRequest = request.next();
+        }
+    }
+
+    private void cancelPending() {
+        Future<Slice<T>> future;
+        while ((future = pending.poll()) != null) {
+            future.cancel(true);
+        }
+    }
+
+    private Slice<T> await(Future<Slice<T>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("slice scan interrupted");
+        } catch (ExecutionException e) {
+            close();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
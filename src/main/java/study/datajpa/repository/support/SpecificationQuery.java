@@ -0,0 +1,474 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * [Specification 조회 - 프로젝션, 스트리밍, keyset 스크롤] <br/>
+ * JpaSpecificationExecutor는 엔티티 전체 조회 + offset 페이징 + count만 지원한다. 같은 Specification으로 <br/>
+ * 1. as(타입) : 필요한 컬럼만 select 한다. <br/>
+ * - DTO 클래스 : 생성자 파라미터 이름 → 속성 경로 (teamName → team.name), 속성으로 모두 해석되는 생성자 중 파라미터가 가장 많은 것 <br/>
+ * - 닫힌 인터페이스 : getter → 속성 경로, 열린 인터페이스(@Value SpEL)는 엔티티를 조회해서 변환한다. <br/>
+ * 2. stream(fetchSize) : 결과를 한 번에 올리지 않고 커서로 읽는다. (트랜잭션 안에서 사용하고 반드시 close) <br/>
+ * 3. scroll(position, size) : keyset 스크롤 - offset, count 없이 직전 창 마지막 row의 정렬 값 다음부터 조회한다. <br/>
+ * 정렬 마지막에 id를 붙여 순서를 유일하게 만든다. 정렬 속성은 null이 될 수 없어야 한다. (id, 원시 타입, optional = false인 속성과 연관관계) <br/>
+ * null이 될 수 있는 속성(예: username, team.name)으로 정렬하면 IllegalArgumentException <br/>
+ * 연관관계 경로는 Specification이 만든 같은 join을 재사용하고 없으면 left join 한다. (team이 없는 회원도 조회) <br/>
+ * FetchPlan.toSpecification()(fetch join)은 엔티티 조회에만 사용한다. <br/>
+ * 불변 객체이다. sortBy, as는 새 SpecificationQuery를 반환한다.
+ * @param <T> 도메인 타입
+ * @param <R> 결과 타입
+ */
+public class SpecificationQuery<T, R> {
+
+    private static final SpelAwareProxyProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+    private static final Map<List<Class<?>>, Projection> PROJECTION_CACHE = new ConcurrentHashMap<>();
+
+    private final EntityManager em;
+    private final Class<T> domainClass;
+    private final Specification<T> spec;
+    private final Sort sort;
+    private final Class<R> resultType;
+
+    private SpecificationQuery(EntityManager em, Class<T> domainClass, Specification<T> spec, Sort sort,
+                               Class<R> resultType) {
+        this.em = em;
+        this.domainClass = domainClass;
+        this.spec = spec;
+        this.sort = sort;
+        this.resultType = resultType;
+    }
+
+    public static <T> SpecificationQuery<T, T> of(EntityManager em, Class<T> domainClass, Specification<T> spec) {
+        return new SpecificationQuery<>(em, domainClass, spec, Sort.unsorted(), domainClass);
+    }
+
+    public SpecificationQuery<T, R> sortBy(Sort sort) {
+        return new SpecificationQuery<>(em, domainClass, spec, sort, resultType);
+    }
+
+    public <P> SpecificationQuery<T, P> as(Class<P> type) {
+        return new SpecificationQuery<>(em, domainClass, spec, sort, type);
+    }
+
+    public List<R> list() {
+        return rows(sort, -1, -1);
+    }
+
+    public Optional<R> first() {
+        return rows(sort, 0, 1).stream().findFirst();
+    }
+
+    public long count() {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, builder);
+        query.select(query.isDistinct() ? builder.countDistinct(root) : builder.count(root));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return em.createQuery(query).getSingleResult();
+    }
+
+    /** offset 페이징 - pageable의 정렬이 없으면 sortBy 정렬을 사용한다. count는 필요할 때만 실행한다. */
+    public Page<R> page(Pageable pageable) {
+        Sort order = pageable.getSort().isSorted() ? pageable.getSort() : sort;
+        List<R> content = pageable.isPaged()
+                ? rows(order, (int) pageable.getOffset(), pageable.getPageSize())
+                : rows(order, -1, -1);
+        return PageableExecutionUtils.getPage(content, pageable, this::count);
+    }
+
+    /**
+     * 커서 스트리밍 조회 - 결과를 fetchSize 단위로 읽어 변환한다. <br/>
+     * 스트림이 커넥션을 잡고 있으므로 트랜잭션 안에서 사용하고 try-with-resources로 닫는다. <br/>
+     * 엔티티 결과는 영속성 컨텍스트에 쌓이므로 대량 엔티티 처리는 forEachMemberStateless를 사용한다.
+     */
+    public Stream<R> stream(int fetchSize) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Specification stream requires an active transaction");
+        }
+        Select select = select(sort, null);
+        return em.createQuery(select.query)
+                .setHint("org.hibernate.fetchSize", fetchSize)
+                .getResultStream()
+                .map(tuple -> resultType.cast(select.projection.map(tuple)));
+    }
+
+    /**
+     * keyset 스크롤 - position 다음부터 size건 <br/>
+     * 같은 정렬로 getNext()를 넘기며 반복한다. 정렬 값 + id 조건이 인덱스를 타므로 깊은 위치도 첫 창과 비용이 같다. <br/>
+     * size는 1 이상 (0이면 빈 창에 hasNext=true, next=position이 되어 호출한 쪽이 끝없이 반복한다.)
+     */
+    public KeysetWindow<R> scroll(KeysetPosition position, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Keyset scroll size must be at least 1 but was " + size);
+        }
+        Sort keysetSort = keysetSort();
+        Select select = select(keysetSort, position);
+        TypedQuery<Tuple> query = em.createQuery(select.query).setMaxResults(size + 1);
+        List<Tuple> tuples = query.getResultList();
+
+        boolean hasNext = tuples.size() > size;
+        List<Tuple> page = hasNext ? tuples.subList(0, size) : tuples;
+        List<R> content = new ArrayList<>(page.size());
+        for (Tuple tuple : page) {
+            content.add(resultType.cast(select.projection.map(tuple)));
+        }
+        KeysetPosition next = page.isEmpty() ? position : positionOf(page.get(page.size() - 1), select);
+        return new KeysetWindow<>(content, hasNext, next);
+    }
+
+    private List<R> rows(Sort order, int offset, int limit) {
+        Select select = select(order, null);
+        TypedQuery<Tuple> query = em.createQuery(select.query);
+        if (offset >= 0) {
+            query.setFirstResult(offset);
+            query.setMaxResults(limit);
+        }
+        List<Tuple> tuples = query.getResultList();
+        List<R> result = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            result.add(resultType.cast(select.projection.map(tuple)));
+        }
+        return result;
+    }
+
+    /**
+     * select 절 : 프로젝션 컬럼(또는 엔티티) [+ keyset이면 정렬 값] <br/>
+     * position이 있으면 (s1 > v1) or (s1 = v1 and s2 > v2) or ... 조건을 추가한다. (내림차순은 <)
+     */
+    private Select select(Sort order, KeysetPosition position) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(domainClass);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, builder);
+
+        Projection projection = PROJECTION_CACHE.computeIfAbsent(Arrays.<Class<?>>asList(domainClass, resultType),
+                key -> Projection.of(domainClass, resultType));
+        List<Selection<?>> selections = new ArrayList<>();
+        if (projection.paths.isEmpty()) {
+            selections.add(root);
+        } else {
+            for (PropertyPath path : projection.paths) {
+                selections.add(expression(root, path));
+            }
+        }
+
+        List<Sort.Order> orders = order.toList();
+        List<Expression<?>> sortExpressions = new ArrayList<>(orders.size());
+        List<Order> orderBy = new ArrayList<>(orders.size());
+        for (Sort.Order o : orders) {
+            Expression<?> expression = expression(root, PropertyPath.from(o.getProperty(), domainClass));
+            sortExpressions.add(expression);
+            Expression<?> ordered = o.isIgnoreCase() ? builder.upper(expression.as(String.class)) : expression;
+            orderBy.add(o.isAscending() ? builder.asc(ordered) : builder.desc(ordered));
+        }
+
+        if (position != null) {
+            selections.addAll(sortExpressions);
+            if (!position.isInitial()) {
+                Predicate after = after(builder, sortExpressions, orders, convert(position, orders));
+                predicate = predicate == null ? after : builder.and(predicate, after);
+            }
+        }
+
+        query.multiselect(selections);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(orderBy);
+        return new Select(query, projection, selections.size() - (position == null ? 0 : sortExpressions.size()),
+                orders);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder builder, List<Expression<?>> expressions, List<Sort.Order> orders,
+                                   List<Object> values) {
+        Predicate[] any = new Predicate[expressions.size()];
+        for (int i = 0; i < expressions.size(); i++) {
+            Predicate[] all = new Predicate[i + 1];
+            for (int j = 0; j < i; j++) {
+                all[j] = builder.equal(expressions.get(j), values.get(j));
+            }
+            Expression<Comparable> expression = (Expression<Comparable>) expressions.get(i);
+            Comparable value = (Comparable) values.get(i);
+            all[i] = orders.get(i).isAscending()
+                    ? builder.greaterThan(expression, value)
+                    : builder.lessThan(expression, value);
+            any[i] = builder.and(all);
+        }
+        return builder.or(any);
+    }
+
+    /**
+     * 요청 정렬 + id 오름차순 (id가 이미 있으면 그대로). <br/>
+     * 대소문자 무시 정렬, null이 될 수 있는 속성 정렬은 keyset 조건으로 만들 수 없다.
+     */
+    private Sort keysetSort() {
+        String id = idAttribute().getName();
+        for (Sort.Order o : sort) {
+            if (o.isIgnoreCase()) {
+                throw new IllegalArgumentException("Keyset scroll does not support ignore-case sort: " + o);
+            }
+            if (isNullable(PropertyPath.from(o.getProperty(), domainClass))) {
+                throw new IllegalArgumentException("Keyset scroll requires a non-nullable sort property: "
+                        + o.getProperty());
+            }
+        }
+        return sort.getOrderFor(id) == null ? sort.and(Sort.by(id)) : sort;
+    }
+
+    /** 경로 중 하나라도 null이 될 수 있으면 true (id, 원시 타입 필드, optional = false인 속성만 null이 아니다.) */
+    private boolean isNullable(PropertyPath path) {
+        Metamodel metamodel = em.getMetamodel();
+        ManagedType<?> type = metamodel.managedType(domainClass);
+        for (PropertyPath segment = path; segment != null; segment = segment.hasNext() ? segment.next() : null) {
+            Attribute<?, ?> attribute = type.getAttribute(segment.getSegment());
+            if (!(attribute instanceof SingularAttribute)) {
+                return true;
+            }
+            SingularAttribute<?, ?> singular = (SingularAttribute<?, ?>) attribute;
+            Member member = singular.getJavaMember();
+            boolean primitive = member instanceof Field ? ((Field) member).getType().isPrimitive()
+                    : member instanceof Method ? ((Method) member).getReturnType().isPrimitive()
+                    : singular.getJavaType().isPrimitive();
+            if (!singular.isId() && !primitive && singular.isOptional()) {
+                return true;
+            }
+            if (segment.hasNext()) {
+                type = metamodel.managedType(attribute.getJavaType());
+            }
+        }
+        return false;
+    }
+
+    private List<Object> convert(KeysetPosition position, List<Sort.Order> orders) {
+        List<Object> values = position.getValues();
+        if (values.size() != orders.size()) {
+            throw new IllegalArgumentException("Keyset position " + values + " does not match sort " + orders);
+        }
+        ConversionService conversionService = DefaultConversionService.getSharedInstance();
+        List<Object> converted = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            Class<?> type = PropertyPath.from(orders.get(i).getProperty(), domainClass).getLeafProperty().getType();
+            Object value = values.get(i);
+            if (value == null) {
+                throw new IllegalArgumentException("Keyset position has null for " + orders.get(i).getProperty());
+            }
+            converted.add(conversionService.convert(value, ClassUtils.resolvePrimitiveIfNecessary(type)));
+        }
+        return converted;
+    }
+
+    private static KeysetPosition positionOf(Tuple tuple, Select select) {
+        List<Object> values = new ArrayList<>(select.orders.size());
+        for (int i = 0; i < select.orders.size(); i++) {
+            Object value = tuple.get(select.columns + i);
+            if (value == null) { // keysetSort에서 null이 될 수 있는 속성을 거르므로 데이터가 매핑과 다를 때만
+                throw new IllegalStateException("Keyset scroll requires non-null sort values: "
+                        + select.orders.get(i).getProperty());
+            }
+            values.add(value);
+        }
+        return KeysetPosition.after(values);
+    }
+
+    private SingularAttribute<? super T, ?> idAttribute() {
+        EntityType<T> entityType = em.getMetamodel().entity(domainClass);
+        return entityType.getId(entityType.getIdType().getJavaType());
+    }
+
+    /**
+     * 속성 경로 → Criteria 표현식 <br/>
+     * 연관관계는 같은 속성의 기존 join을 재사용하고 없으면 left join 한다. 컬렉션 연관관계는 row가 늘어나므로 허용하지 않는다.
+     */
+    private Expression<?> expression(Root<T> root, PropertyPath path) {
+        Metamodel metamodel = em.getMetamodel();
+        ManagedType<?> type = metamodel.managedType(domainClass);
+        Path<?> current = root;
+        for (PropertyPath segment = path; segment != null; segment = segment.hasNext() ? segment.next() : null) {
+            Attribute<?, ?> attribute = type.getAttribute(segment.getSegment());
+            if (attribute.isCollection()) {
+                throw new IllegalArgumentException("Collection path is not supported: " + path.toDotPath());
+            }
+            if (attribute.isAssociation()) {
+                current = join((From<?, ?>) current, attribute.getName());
+            } else {
+                current = current.get(attribute.getName());
+            }
+            if (segment.hasNext()) {
+                type = metamodel.managedType(attribute.getJavaType());
+            }
+        }
+        return current;
+    }
+
+    private static Join<?, ?> join(From<?, ?> from, String attribute) {
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute)) {
+                return join;
+            }
+        }
+        return from.join(attribute, JoinType.LEFT);
+    }
+
+    private static final class Select {
+        final CriteriaQuery<Tuple> query;
+        final Projection projection;
+        /** 프로젝션 컬럼 수 (그 뒤는 keyset 정렬 값) */
+        final int columns;
+        final List<Sort.Order> orders;
+
+        Select(CriteriaQuery<Tuple> query, Projection projection, int columns, List<Sort.Order> orders) {
+            this.query = query;
+            this.projection = projection;
+            this.columns = columns;
+            this.orders = orders;
+        }
+    }
+
+    /**
+     * 결과 타입별 select 컬럼과 tuple → 결과 변환 <br/>
+     * paths가 비어 있으면 엔티티를 조회한다.
+     */
+    private abstract static class Projection {
+        final List<PropertyPath> paths;
+
+        Projection(List<PropertyPath> paths) {
+            this.paths = paths;
+        }
+
+        abstract Object map(Tuple tuple);
+
+        static Projection of(Class<?> domainClass, Class<?> resultType) {
+            if (resultType.isAssignableFrom(domainClass)) {
+                return new Projection(Collections.emptyList()) {
+                    @Override
+                    Object map(Tuple tuple) {
+                        return tuple.get(0);
+                    }
+                };
+            }
+            if (resultType.isInterface()) {
+                return ofInterface(domainClass, resultType);
+            }
+            return ofConstructor(domainClass, resultType);
+        }
+
+        private static Projection ofInterface(Class<?> domainClass, Class<?> resultType) {
+            ProjectionInformation information = PROJECTIONS.getProjectionInformation(resultType);
+            if (!information.isClosed()) {
+                return new Projection(Collections.emptyList()) {
+                    @Override
+                    Object map(Tuple tuple) {
+                        return PROJECTIONS.createProjection(resultType, tuple.get(0));
+                    }
+                };
+            }
+            List<String> names = information.getInputProperties().stream()
+                    .map(PropertyDescriptor::getName)
+                    .collect(Collectors.toList());
+            List<PropertyPath> paths = new ArrayList<>(names.size());
+            for (String name : names) {
+                paths.add(PropertyPath.from(name, domainClass));
+            }
+            return new Projection(paths) {
+                @Override
+                Object map(Tuple tuple) {
+                    Map<String, Object> values = new HashMap<>();
+                    for (int i = 0; i < names.size(); i++) {
+                        values.put(names.get(i), tuple.get(i));
+                    }
+                    return PROJECTIONS.createProjection(resultType, values);
+                }
+            };
+        }
+
+        private static Projection ofConstructor(Class<?> domainClass, Class<?> resultType) {
+            Constructor<?> best = null;
+            List<PropertyPath> bestPaths = null;
+            for (Constructor<?> constructor : resultType.getConstructors()) {
+                List<PropertyPath> paths = resolve(constructor, domainClass);
+                if (paths != null && (best == null || paths.size() > bestPaths.size())) {
+                    best = constructor;
+                    bestPaths = paths;
+                }
+            }
+            if (best == null) {
+                throw new IllegalArgumentException("No constructor of " + resultType.getName()
+                        + " maps to properties of " + domainClass.getSimpleName());
+            }
+            Constructor<?> constructor = best;
+            return new Projection(bestPaths) {
+                @Override
+                Object map(Tuple tuple) {
+                    Object[] args = new Object[paths.size()]; // 뒤쪽 keyset 정렬 값은 제외
+                    for (int i = 0; i < args.length; i++) {
+                        args[i] = tuple.get(i);
+                    }
+                    return BeanUtils.instantiateClass(constructor, args);
+                }
+            };
+        }
+
+        /** 파라미터가 모두 같은 타입의 속성 경로로 해석되면 그 경로들, 아니면 null */
+        private static List<PropertyPath> resolve(Constructor<?> constructor, Class<?> domainClass) {
+            String[] names = PARAMETER_NAMES.getParameterNames(constructor);
+            if (names == null || names.length == 0) {
+                return null;
+            }
+            Class<?>[] types = constructor.getParameterTypes();
+            List<PropertyPath> paths = new ArrayList<>(names.length);
+            for (int i = 0; i < names.length; i++) {
+                PropertyPath path;
+                try {
+                    path = PropertyPath.from(names[i], domainClass);
+                } catch (PropertyReferenceException e) {
+                    return null;
+                }
+                Class<?> leaf = ClassUtils.resolvePrimitiveIfNecessary(path.getLeafProperty().getType());
+                if (!ClassUtils.resolvePrimitiveIfNecessary(types[i]).isAssignableFrom(leaf)) {
+                    return null;
+                }
+                paths.add(path);
+            }
+            return paths;
+        }
+    }
+}
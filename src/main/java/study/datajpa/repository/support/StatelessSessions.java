@@ -0,0 +1,36 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.util.function.Function;
+
+/**
+ * [StatelessSession 실행 도우미] <br/>
+ * 현재 스프링 트랜잭션의 Session이 사용하는 JDBC 커넥션을 그대로 넘겨 StatelessSession을 연다. <br/>
+ * 같은 커넥션을 쓰므로 커밋/롤백은 스프링 트랜잭션을 따른다. (StatelessSession은 커넥션을 닫지 않는다.) <br/>
+ * StatelessSession은 1차캐시, 스냅샷, 변경감지, cascade, 엔티티 리스너(Auditing)가 없다.
+ */
+public abstract class StatelessSessions {
+
+    public static <R> R execute(EntityManager em, Function<StatelessSession, R> work) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("StatelessSession work requires an active transaction");
+        }
+        Session session = em.unwrap(Session.class);
+        session.flush(); // 영속성 컨텍스트에 쌓인 변경을 먼저 반영해 SQL 순서를 맞춘다.
+        Connection connection = session.unwrap(SessionImplementor.class)
+                .getJdbcCoordinator().getLogicalConnection().getPhysicalConnection();
+
+        StatelessSession statelessSession = session.getSessionFactory().openStatelessSession(connection);
+        try {
+            return work.apply(statelessSession);
+        } finally {
+            statelessSession.close();
+        }
+    }
+}
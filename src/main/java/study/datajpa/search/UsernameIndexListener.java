@@ -0,0 +1,50 @@
+package study.datajpa.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * [엔티티 리스너] Member 저장/수정/삭제를 UsernamePrefixIndex에 반영한다. <br/>
+ * 트랜잭션 안에서는 커밋된 뒤에만 반영한다. (롤백된 회원이 자동완성에 나오지 않도록) <br/>
+ * 벌크 연산으로 username을 바꾸는 경우는 감지되지 않으므로 UsernamePrefixIndexLoader.load()로 재구성한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class UsernameIndexListener {
+
+    private final UsernamePrefixIndex usernamePrefixIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Member member) {
+        long id = member.getId();
+        String username = member.getUsername(); // 이벤트 시점 값을 캡처한다.
+        afterCommit(() -> usernamePrefixIndex.put(id, username));
+    }
+
+    @PostRemove
+    public void onRemove(Member member) {
+        long id = member.getId();
+        afterCommit(() -> usernamePrefixIndex.remove(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package study.datajpa.search;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Comparator;
+
+/**
+ * 자동완성 결과 (회원 id, username)
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class UsernameMatch {
+    /** username → id 순 정렬 (인덱스 내부 정렬 기준과 같다.) */
+    static final Comparator<UsernameMatch> ORDER =
+            Comparator.comparing(UsernameMatch::getUsername).thenComparingLong(UsernameMatch::getId);
+
+    private final long id;
+    private final String username;
+
+    public UsernameMatch(long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+}
@@ -0,0 +1,272 @@
+package study.datajpa.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * [username 접두사 인덱스] <br/>
+ * DB를 거치지 않고 username 접두사로 상위 K개 회원(id, username)을 찾는다. <br/>
+ * 본체는 username 순으로 정렬된 배열(String[] + long[])이며 이진탐색으로 시작 위치를 찾는다. <br/>
+ * 이후 변경(저장/수정/삭제)은 작은 델타(추가 set + 삭제 id)에 쌓았다가 임계치를 넘으면 배열로 다시 합친다. <br/>
+ * 조회는 volatile 스냅샷을 읽으므로 락이 없고, 쓰기와 압축(compaction)만 synchronized로 직렬화한다. <br/>
+ * 재구성 : beginLoad() 이후의 변경은 따로 기록했다가 load()로 교체한 뒤 다시 적용한다. <br/>
+ * (DB 스냅샷을 읽는 동안 커밋된 변경이 교체로 사라지지 않도록. 스냅샷에 이미 포함된 변경은 다시 적용해도 결과가 같다.)
+ */
+@Component
+public class UsernamePrefixIndex {
+
+    private final int compactThreshold;
+    private volatile State state = new State(new String[0], new long[0], 0);
+    /** 재구성 중 들어온 변경 (id, username - 삭제는 null). 재구성 중이 아니면 null */
+    private List<Object[]> changesDuringLoad;
+
+    public UsernamePrefixIndex(@Value("${datajpa.username-index.compact-threshold:10000}") int compactThreshold) {
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * 접두사로 시작하는 username을 정렬 순서대로 최대 limit개 반환한다.
+     */
+    public List<UsernameMatch> search(String prefix, int limit) {
+        State current = state;
+        List<UsernameMatch> result = new ArrayList<>(Math.min(limit, 64));
+        if (limit <= 0) {
+            return result;
+        }
+
+        int base = current.lowerBound(prefix);
+        Iterator<UsernameMatch> delta = current.added.tailSet(new UsernameMatch(Long.MIN_VALUE, prefix)).iterator();
+        UsernameMatch next = nextMatch(delta, prefix);
+
+        while (result.size() < limit) {
+            while (base < current.size && current.removed.contains(current.ids[base])
+                    && current.names[base].startsWith(prefix)) {
+                base++;
+            }
+            boolean baseMatches = base < current.size && current.names[base].startsWith(prefix);
+            if (!baseMatches && next == null) {
+                break;
+            }
+            if (next == null || (baseMatches && compare(current.names[base], current.ids[base], next) < 0)) {
+                result.add(new UsernameMatch(current.ids[base], current.names[base]));
+                base++;
+            } else {
+                result.add(next);
+                next = nextMatch(delta, prefix);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 회원 저장/수정 반영 (username이 바뀌었을 수 있으므로 기존 항목을 지우고 다시 넣는다.) <br/>
+     * 같은 username이 이미 델타나 본체 배열에 있으면(나이, 팀만 바뀐 수정) 아무것도 하지 않는다.
+     */
+    public synchronized void put(long id, String username) {
+        if (changesDuringLoad != null) {
+            changesDuringLoad.add(new Object[]{id, username});
+        }
+        State current = state;
+        if (username != null && (username.equals(current.addedNames.get(id)) || current.containsInBase(id, username))) {
+            return;
+        }
+        removeFrom(current, id);
+        if (username != null) {
+            String interned = username.intern();
+            current.added.add(new UsernameMatch(id, interned));
+            current.addedNames.put(id, interned);
+        }
+        compactIfNeeded(current);
+    }
+
+    /** 회원 삭제 반영 */
+    public synchronized void remove(long id) {
+        if (changesDuringLoad != null) {
+            changesDuringLoad.add(new Object[]{id, null});
+        }
+        State current = state;
+        removeFrom(current, id);
+        compactIfNeeded(current);
+    }
+
+    /** 재구성 시작 - DB 스냅샷을 읽기 전에 호출한다. 이후 변경은 load()에서 다시 적용된다. */
+    public synchronized void beginLoad() {
+        if (changesDuringLoad == null) {
+            changesDuringLoad = new ArrayList<>();
+        }
+    }
+
+    /** 재구성 실패 - 기록하던 변경을 버린다. (현재 인덱스에는 이미 반영되어 있다.) */
+    public synchronized void cancelLoad() {
+        changesDuringLoad = null;
+    }
+
+    /**
+     * 전체 재구성 <br/>
+     * names/ids는 같은 길이(size)의 병렬 배열이며 정렬되어 있지 않으면 여기서 정렬한다. <br/>
+     * beginLoad() 이후 들어온 변경은 교체 후 순서대로 다시 적용한다.
+     */
+    public synchronized void load(String[] names, long[] ids, int size) {
+        UsernameMatch[] entries = new UsernameMatch[size];
+        boolean sorted = true;
+        for (int i = 0; i < size; i++) {
+            names[i] = names[i].intern();
+            if (i > 0 && compare(names[i - 1], ids[i - 1], names[i], ids[i]) > 0) {
+                sorted = false;
+            }
+        }
+        if (!sorted) {
+            for (int i = 0; i < size; i++) {
+                entries[i] = new UsernameMatch(ids[i], names[i]);
+            }
+            Arrays.sort(entries, UsernameMatch.ORDER);
+            for (int i = 0; i < size; i++) {
+                names[i] = entries[i].getUsername();
+                ids[i] = entries[i].getId();
+            }
+        }
+        state = new State(Arrays.copyOf(names, size), Arrays.copyOf(ids, size), size);
+
+        List<Object[]> changes = changesDuringLoad;
+        changesDuringLoad = null;
+        if (changes != null) {
+            for (Object[] change : changes) {
+                if (change[1] == null) {
+                    remove((Long) change[0]);
+                } else {
+                    put((Long) change[0], (String) change[1]);
+                }
+            }
+        }
+    }
+
+    /** 인덱스에 포함된 회원 수 */
+    public int size() {
+        State current = state;
+        int removedFromBase = 0;
+        for (int i = 0; i < current.size; i++) {
+            if (current.removed.contains(current.ids[i])) {
+                removedFromBase++;
+            }
+        }
+        return current.size - removedFromBase + current.added.size();
+    }
+
+    /** 압축 전까지 쌓인 델타 수 (추가 + 삭제) */
+    int pendingChanges() {
+        State current = state;
+        return current.added.size() + current.removed.size();
+    }
+
+    private static void removeFrom(State current, long id) {
+        String previous = current.addedNames.remove(id);
+        if (previous != null) {
+            current.added.remove(new UsernameMatch(id, previous));
+        }
+        current.removed.add(id); // 본체 배열에 있을 수 있으므로 항상 tombstone을 남긴다.
+    }
+
+    private void compactIfNeeded(State current) {
+        int pending = current.added.size() + current.removed.size();
+        if (pending < Math.max(compactThreshold, current.size / 8)) {
+            return;
+        }
+        int capacity = current.size + current.added.size();
+        String[] names = new String[capacity];
+        long[] ids = new long[capacity];
+        int size = 0;
+        int base = 0;
+        Iterator<UsernameMatch> delta = current.added.iterator();
+        UsernameMatch next = delta.hasNext() ? delta.next() : null;
+        while (base < current.size || next != null) {
+            if (base < current.size && current.removed.contains(current.ids[base])) {
+                base++;
+                continue;
+            }
+            if (next == null || (base < current.size && compare(current.names[base], current.ids[base], next) < 0)) {
+                names[size] = current.names[base];
+                ids[size++] = current.ids[base++];
+            } else {
+                names[size] = next.getUsername();
+                ids[size++] = next.getId();
+                next = delta.hasNext() ? delta.next() : null;
+            }
+        }
+        state = new State(Arrays.copyOf(names, size), Arrays.copyOf(ids, size), size);
+    }
+
+    private static UsernameMatch nextMatch(Iterator<UsernameMatch> delta, String prefix) {
+        if (delta.hasNext()) {
+            UsernameMatch match = delta.next();
+            if (match.getUsername().startsWith(prefix)) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    private static int compare(String name, long id, UsernameMatch other) {
+        return compare(name, id, other.getUsername(), other.getId());
+    }
+
+    private static int compare(String name1, long id1, String name2, long id2) {
+        int result = name1.compareTo(name2);
+        return result != 0 ? result : Long.compare(id1, id2);
+    }
+
+    /** 정렬 배열 본체 + 델타 */
+    private static final class State {
+        final String[] names;
+        final long[] ids;
+        final int size;
+        final ConcurrentSkipListSet<UsernameMatch> added = new ConcurrentSkipListSet<>(UsernameMatch.ORDER);
+        final Map<Long, String> addedNames = new ConcurrentHashMap<>();
+        final Set<Long> removed = ConcurrentHashMap.newKeySet();
+
+        State(String[] names, long[] ids, int size) {
+            this.names = names;
+            this.ids = ids;
+            this.size = size;
+        }
+
+        /** 본체 배열에 (username, id)가 있고 삭제되지 않았는지 - 이진탐색 */
+        boolean containsInBase(long id, String username) {
+            if (removed.contains(id)) {
+                return false;
+            }
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int result = compare(names[mid], ids[mid], username, id);
+                if (result < 0) {
+                    low = mid + 1;
+                } else if (result > 0) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** prefix 이상인 첫번째 위치 */
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (names[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
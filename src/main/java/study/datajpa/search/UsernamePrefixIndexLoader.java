@@ -0,0 +1,62 @@
+package study.datajpa.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 애플리케이션 시작 시점에 member 테이블 전체로 UsernamePrefixIndex를 한번에 만든다. <br/>
+ * (id, username) 두 컬럼만 스트리밍으로 읽어 병렬 배열에 쌓는다. (엔티티를 만들지 않는다.) <br/>
+ * 읽는 동안 커밋된 변경(UsernameIndexListener)은 인덱스가 기록해 두었다가 교체 후 다시 적용한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class UsernamePrefixIndexLoader {
+
+    private final UsernamePrefixIndex usernamePrefixIndex;
+    private final EntityManager em;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        usernamePrefixIndex.beginLoad();
+        boolean loaded = false;
+        try {
+            loadSnapshot();
+            loaded = true;
+        } finally {
+            if (!loaded) {
+                usernamePrefixIndex.cancelLoad();
+            }
+        }
+    }
+
+    private void loadSnapshot() {
+        String[] names = new String[1024];
+        long[] ids = new long[1024];
+        int size = 0;
+        try (Stream<Object[]> rows = em.createQuery(
+                        "select m.id, m.username from Member m where m.username is not null order by m.username, m.id",
+                        Object[].class)
+                .getResultStream()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                if (size == names.length) {
+                    names = Arrays.copyOf(names, size * 2);
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size] = (Long) row[0];
+                names[size++] = (String) row[1];
+            }
+        }
+        usernamePrefixIndex.load(names, ids, size);
+    }
+}
@@ -0,0 +1,64 @@
+package study.datajpa.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * 샤드 하나 (DataSource + member 테이블, id 블록 할당) <br/>
+ * id는 시퀀스 값 하나로 ID_BLOCK개를 메모리에서 할당한다. (insert마다 시퀀스 조회를 하지 않는다.)
+ */
+class MemberShard {
+
+    static final int ID_BLOCK = 100;
+    static final String COLUMNS = "member_id, username, age, team_id";
+    static final RowMapper<ShardedMember> ROW_MAPPER = (rs, rowNum) -> new ShardedMember(
+            rs.getLong("member_id"), rs.getString("username"), rs.getInt("age"),
+            rs.getObject("team_id", Long.class));
+
+    final int index;
+    final DataSource dataSource;
+    final JdbcTemplate jdbc;
+
+    private long nextSequence;
+    private long sequenceLimit;
+
+    MemberShard(int index, DataSource dataSource) {
+        this.index = index;
+        this.dataSource = dataSource;
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    void createSchema() {
+        jdbc.execute("create table if not exists member (" +
+                "member_id bigint primary key, username varchar(255), age int not null, team_id bigint)");
+        jdbc.execute("create index if not exists idx_member_team_id on member (team_id)");
+        jdbc.execute("create sequence if not exists member_seq start with 1 increment by 1");
+    }
+
+    synchronized long nextId() {
+        if (nextSequence == sequenceLimit) {
+            Long block = jdbc.queryForObject("select next value for member_seq", Long.class);
+            nextSequence = block * ID_BLOCK;
+            sequenceLimit = nextSequence + ID_BLOCK;
+        }
+        return ShardIds.compose(nextSequence++, index);
+    }
+
+    ShardedMember insert(String username, int age, Long teamId) {
+        long id = nextId();
+        jdbc.update("insert into member (" + COLUMNS + ") values (?, ?, ?, ?)", id, username, age, teamId);
+        return new ShardedMember(id, username, age, teamId);
+    }
+
+    List<ShardedMember> query(String sql, Object... args) {
+        return jdbc.query(sql, ROW_MAPPER, args);
+    }
+
+    long count() {
+        Long count = jdbc.queryForObject("select count(*) from member", Long.class);
+        return count == null ? 0 : count;
+    }
+}
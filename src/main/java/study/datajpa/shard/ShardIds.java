@@ -0,0 +1,27 @@
+package study.datajpa.shard;
+
+/**
+ * [샤드 인식 id] <br/>
+ * member_id 하위 SHARD_BITS 비트에 샤드 번호를, 나머지 상위 비트에 샤드별 시퀀스 값을 담는다. <br/>
+ * id만 보고 저장된 샤드를 알 수 있으므로 findById는 한 샤드만 조회한다. <br/>
+ * 예) 샤드 2의 시퀀스 값 100 → (100 << 8) | 2 = 25602
+ */
+public final class ShardIds {
+
+    public static final int SHARD_BITS = 8;
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+    private ShardIds() {
+    }
+
+    public static long compose(long sequence, int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("shard " + shard + " is out of range [0, " + MAX_SHARDS + ")");
+        }
+        return (sequence << SHARD_BITS) | shard;
+    }
+
+    public static int shardOf(long id) {
+        return (int) (id & (MAX_SHARDS - 1));
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.shard;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 샤드에 저장된 회원 row (id는 ShardIds 형식, team은 id만 가진다.) <br/>
+ * Member 엔티티와 별개인 값 객체이다. (영속성 컨텍스트, 지연 로딩 없음)
+ */
+@Getter
+@ToString
+public class ShardedMember {
+    private final Long id;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+
+    public ShardedMember(Long id, String username, int age, Long teamId) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+    }
+
+    public int getShard() {
+        return ShardIds.shardOf(id);
+    }
+}
@@ -0,0 +1,222 @@
+package study.datajpa.shard;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * [회원 샤딩 - Scatter/Gather 프로토타입] <br/>
+ * 회원을 team_id 기준으로 여러 DB(샤드)에 나눠 저장한다. (같은 팀의 회원은 항상 같은 샤드) <br/>
+ * 단독 JDBC 저장소이다 : MemberRepository, Member 엔티티는 그대로 단일 DB(spring.datasource)를 사용하고 <br/>
+ * 애플리케이션의 다른 코드는 이 저장소를 읽거나 쓰지 않는다. (라우팅, 병합 방식 검증용) <br/>
+ * 감사 컬럼, outbox, 쿼리 캐시, 팀 통계, username 색인도 샤드의 회원을 알지 못한다. <br/>
+ * 1. 저장 : teamId % 샤드 수 (팀이 없으면 라운드로빈), id는 ShardIds 형식으로 샤드 번호를 담는다. <br/>
+ * 2. 단건/팀 조회 : id 또는 teamId로 샤드 하나만 조회한다. <br/>
+ * 3. 페이징 : 모든 샤드에 같은 정렬로 offset + size개씩 병렬 조회(scatter) 후 병합 정렬하여 page를 잘라낸다.(gather) <br/>
+ * count는 샤드별 count의 합이며 PageableExecutionUtils로 필요할 때만 실행한다. <br/>
+ * 주의 : 페이지가 깊을수록 샤드마다 offset + size개를 읽으므로 깊은 페이지는 비용이 샤드 수만큼 커진다. <br/>
+ * 정렬 속성 : id, username, age, teamId (마지막에 id 오름차순을 붙여 샤드 간 순서를 고정한다.)
+ */
+public class ShardedMemberRepository implements Closeable {
+
+    private static final Map<String, String> SORT_COLUMNS = new HashMap<>();
+
+    static {
+        SORT_COLUMNS.put("id", "member_id");
+        SORT_COLUMNS.put("username", "username");
+        SORT_COLUMNS.put("age", "age");
+        SORT_COLUMNS.put("teamId", "team_id");
+    }
+
+    private final List<MemberShard> shards;
+    private final ExecutorService executor;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    public ShardedMemberRepository(List<DataSource> dataSources) {
+        if (dataSources.isEmpty() || dataSources.size() > ShardIds.MAX_SHARDS) {
+            throw new IllegalArgumentException("shard count must be 1.." + ShardIds.MAX_SHARDS
+                    + " but was " + dataSources.size());
+        }
+        List<MemberShard> shards = new ArrayList<>();
+        for (int i = 0; i < dataSources.size(); i++) {
+            MemberShard shard = new MemberShard(i, dataSources.get(i));
+            shard.createSchema();
+            shards.add(shard);
+        }
+        this.shards = Collections.unmodifiableList(shards);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "member-shard-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public int shardForTeam(Long teamId) {
+        return teamId == null
+                ? Math.floorMod(roundRobin.getAndIncrement(), shards.size())
+                : (int) Math.floorMod(teamId, (long) shards.size());
+    }
+
+    public ShardedMember save(String username, int age, Long teamId) {
+        return shards.get(shardForTeam(teamId)).insert(username, age, teamId);
+    }
+
+    public Optional<ShardedMember> findById(long id) {
+        int shard = ShardIds.shardOf(id);
+        if (shard >= shards.size()) {
+            return Optional.empty();
+        }
+        List<ShardedMember> rows = shards.get(shard)
+                .query("select " + MemberShard.COLUMNS + " from member where member_id = ?", id);
+        return rows.stream().findFirst();
+    }
+
+    public List<ShardedMember> findByTeamId(long teamId) {
+        return shards.get(shardForTeam(teamId))
+                .query("select " + MemberShard.COLUMNS + " from member where team_id = ? order by member_id", teamId);
+    }
+
+    public long count() {
+        return scatter(MemberShard::count).stream().mapToLong(Long::longValue).sum();
+    }
+
+    public Page<ShardedMember> findAll(Pageable pageable) {
+        Sort sort = withIdTieBreaker(pageable.getSort());
+        String sql = "select " + MemberShard.COLUMNS + " from member order by " + orderBy(sort)
+                + (pageable.isPaged() ? " limit " + (pageable.getOffset() + pageable.getPageSize()) : "");
+        List<List<ShardedMember>> perShard = scatter(shard -> shard.query(sql));
+
+        List<ShardedMember> content = merge(perShard, comparator(sort),
+                pageable.isPaged() ? pageable.getOffset() : 0,
+                pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE);
+        return PageableExecutionUtils.getPage(content, pageable, this::count);
+    }
+
+    /** 샤드별 정렬된 목록을 k-way 병합하여 offset부터 size개를 반환한다. */
+    static <T> List<T> merge(List<List<T>> sortedLists, Comparator<T> comparator, long offset, int size) {
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>((a, b) -> comparator.compare(a.current(), b.current()));
+        for (List<T> list : sortedLists) {
+            if (!list.isEmpty()) {
+                heads.add(new Cursor<>(list));
+            }
+        }
+        List<T> result = new ArrayList<>(Math.min(size, 1024));
+        long skipped = 0;
+        while (!heads.isEmpty() && result.size() < size) {
+            Cursor<T> head = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(head.current());
+            }
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return result;
+    }
+
+    private <R> List<R> scatter(Function<MemberShard, R> work) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(shards.size());
+        for (MemberShard shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> work.apply(shard), executor));
+        }
+        List<R> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<R> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private static Sort withIdTieBreaker(Sort sort) {
+        return sort.getOrderFor("id") == null ? sort.and(Sort.by("id")) : sort;
+    }
+
+    /** 정렬 속성을 컬럼으로 바꾼다. null은 가장 작은 값으로 취급한다. (asc → nulls first, desc → nulls last) */
+    private static String orderBy(Sort sort) {
+        StringJoiner orderBy = new StringJoiner(", ");
+        for (Sort.Order order : sort) {
+            orderBy.add(column(order.getProperty()) + (order.isAscending() ? " asc nulls first" : " desc nulls last"));
+        }
+        return orderBy.toString();
+    }
+
+    private static Comparator<ShardedMember> comparator(Sort sort) {
+        Comparator<ShardedMember> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<ShardedMember> next = propertyComparator(order.getProperty());
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    private static Comparator<ShardedMember> propertyComparator(String property) {
+        switch (column(property)) {
+            case "member_id":
+                return Comparator.comparing(ShardedMember::getId);
+            case "username":
+                return Comparator.comparing(ShardedMember::getUsername, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "age":
+                return Comparator.comparingInt(ShardedMember::getAge);
+            default:
+                return Comparator.comparing(ShardedMember::getTeamId, Comparator.nullsFirst(Comparator.naturalOrder()));
+        }
+    }
+
+    private static String column(String property) {
+        String column = SORT_COLUMNS.get(property);
+        if (column == null) {
+            throw new IllegalArgumentException("sort '" + property + "' is not one of " + SORT_COLUMNS.keySet());
+        }
+        return column;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        for (MemberShard shard : shards) {
+            if (shard.dataSource instanceof Closeable) {
+                try {
+                    ((Closeable) shard.dataSource).close();
+                } catch (java.io.IOException ignored) {
+                    // 종료 중 DataSource 정리 실패는 무시한다.
+                }
+            }
+        }
+    }
+
+    private static class Cursor<T> {
+        private final List<T> list;
+        private int position;
+
+        Cursor(List<T> list) {
+            this.list = list;
+        }
+
+        T current() {
+            return list.get(position);
+        }
+
+        boolean advance() {
+            return ++position < list.size();
+        }
+    }
+}
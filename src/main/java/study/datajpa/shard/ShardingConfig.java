@@ -0,0 +1,33 @@
+package study.datajpa.shard;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * [회원 샤딩 설정] <br/>
+ * datajpa.sharding.urls : 샤드 DB url 목록 (순서가 샤드 번호이므로 바꾸면 안된다.) <br/>
+ * 샤드 DataSource는 빈으로 등록하지 않는다. (기본 DataSource/JPA 자동 설정은 그대로 spring.datasource를 사용한다.) <br/>
+ * 켜도 MemberRepository는 샤딩되지 않는다. ShardedMemberRepository를 직접 주입해서 사용한다. (단독 프로토타입)
+ */
+@Configuration
+@ConditionalOnProperty(name = "datajpa.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardedMemberRepository shardedMemberRepository(@Value("${datajpa.sharding.urls}") List<String> urls,
+                                                           @Value("${datajpa.sharding.username:sa}") String username,
+                                                           @Value("${datajpa.sharding.password:}") String password) {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (String url : urls) {
+            dataSources.add(DataSourceBuilder.create().url(url).username(username).password(password).build());
+        }
+        return new ShardedMemberRepository(dataSources);
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.stats;
+
+import java.lang.annotation.*;
+
+/**
+ * 벌크 연산 메소드 표시 : "age >= :minAgeParam 인 회원의 나이를 1 증가시킨다." <br/>
+ * TeamStatsBulkAdvice가 실행 전에 나이대 경계(9, 19, ...)를 넘는 회원만 팀별로 세어 통계를 이동시킨다. <br/>
+ * 표시가 없는 @Modifying 메소드는 커밋 후 통계를 전체 재구성한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface IncrementsAge {
+
+    /** 최소 나이 파라미터명 (@Param 값) */
+    String minAgeParam();
+}
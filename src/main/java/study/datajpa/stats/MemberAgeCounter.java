@@ -0,0 +1,196 @@
+package study.datajpa.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.cache.TableWriteTracker;
+import study.datajpa.entity.Member;
+import study.datajpa.outbox.OutboxEventListener;
+import study.datajpa.repository.support.StatelessSessions;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * [Write-Behind 나이 카운터] <br/>
+ * 회원 나이를 아주 자주 증감하는 경우 매번 변경감지 update나 bulkAgePlus를 실행하지 않고 <br/>
+ * 회원별 증감(delta)을 메모리에 모았다가 주기적으로 한 번의 JDBC batch update로 반영한다. <br/>
+ * 1. increment : id 해시로 고른 stripe(ConcurrentHashMap)의 AtomicLong에 CAS로 더한다. (락 없음) <br/>
+ * 2. flush : 누적값을 getAndSet(0)으로 꺼내 "update member set age = age + ? where member_id = ?"를 batch로 실행한다. <br/>
+ * 3. 실패하면 꺼낸 증감을 되돌려 넣고 다음 flush에서 다시 시도한다. <br/>
+ * 같은 트랜잭션에서 쿼리 캐시 무효화, 팀 통계 나이대 이동, outbox UPDATED 기록을 함께 처리한다. <br/>
+ * 내구성 : 반영 전 증감은 메모리에만 있으므로 프로세스가 비정상 종료되면 최대 datajpa.write-behind.flush-interval-ms 동안의 증감을 잃는다. <br/>
+ * 정상 종료시에는 @PreDestroy에서 남은 증감을 flush한다. <br/>
+ * 주의 : 반영 전까지 DB와 다른 영속성 컨텍스트는 이전 나이를 본다. (정확한 값이 필요하면 flush() 후 조회한다.)
+ */
+@Slf4j
+@Component
+public class MemberAgeCounter {
+
+    private static final int STRIPES = 16;
+    private static final int CHUNK_SIZE = 1000;
+    /** flush 후 사용하지 않는 카운터 표시 (이 값을 본 increment는 새 카운터를 만든다.) */
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final EntityManager em;
+    private final TransactionTemplate transaction;
+    private final TableWriteTracker tableWriteTracker;
+    private final TeamStatsAggregate teamStatsAggregate;
+    private final OutboxEventListener outboxEventListener;
+    private final ConcurrentHashMap<Long, AtomicLong>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public MemberAgeCounter(EntityManager em, PlatformTransactionManager transactionManager,
+                            TableWriteTracker tableWriteTracker, TeamStatsAggregate teamStatsAggregate,
+                            OutboxEventListener outboxEventListener) {
+        this.em = em;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.tableWriteTracker = tableWriteTracker;
+        this.teamStatsAggregate = teamStatsAggregate;
+        this.outboxEventListener = outboxEventListener;
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    public void increment(Long memberId) {
+        add(memberId, 1);
+    }
+
+    public void add(Long memberId, long delta) {
+        ConcurrentHashMap<Long, AtomicLong> stripe = stripe(memberId);
+        while (true) {
+            AtomicLong counter = stripe.computeIfAbsent(memberId, id -> new AtomicLong());
+            long current = counter.get();
+            if (current == RETIRED) {
+                stripe.remove(memberId, counter);
+                continue;
+            }
+            if (counter.compareAndSet(current, current + delta)) {
+                return;
+            }
+        }
+    }
+
+    /** 아직 반영되지 않은 증감 (반영 전 값 확인용) */
+    public long pending(Long memberId) {
+        AtomicLong counter = stripe(memberId).get(memberId);
+        long value = counter == null ? 0 : counter.get();
+        return value == RETIRED ? 0 : value;
+    }
+
+    /** 반영 대기중인 회원 수 */
+    public int pendingMembers() {
+        int count = 0;
+        for (ConcurrentHashMap<Long, AtomicLong> stripe : stripes) {
+            count += stripe.size();
+        }
+        return count;
+    }
+
+    @Scheduled(fixedDelayString = "${datajpa.write-behind.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("write-behind flush failed, deltas kept for retry", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * 누적된 증감을 한 트랜잭션에서 batch update로 반영한다.
+     * @return 반영한 회원 수
+     */
+    public synchronized int flush() {
+        Map<Long, Long> deltas = drain();
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        try {
+            transaction.executeWithoutResult(status -> write(deltas));
+        } catch (RuntimeException e) {
+            deltas.forEach(this::add);
+            throw e;
+        }
+        return deltas.size();
+    }
+
+    private Map<Long, Long> drain() {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (ConcurrentHashMap<Long, AtomicLong> stripe : stripes) {
+            for (Map.Entry<Long, AtomicLong> entry : stripe.entrySet()) {
+                AtomicLong counter = entry.getValue();
+                long delta = counter.getAndSet(0);
+                if (delta != 0) {
+                    deltas.put(entry.getKey(), delta);
+                } else if (counter.compareAndSet(0, RETIRED)) { // 한 주기 동안 증감이 없던 카운터는 정리한다.
+                    stripe.remove(entry.getKey(), counter);
+                }
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * batch update 후 같은 트랜잭션에서 바뀐 회원을 다시 읽는다. (update가 잡은 row 락 안의 값) <br/>
+     * 읽은 나이로 나이대 이동을 팀 통계에 기록하고(커밋 후 반영) outbox에 UPDATED를 남긴다. <br/>
+     * 먼저 읽고 update하면 그 사이 다른 트랜잭션이 커밋한 나이 변경을 놓쳐 이전 나이대로 계산된다.
+     */
+    private void write(Map<Long, Long> deltas) {
+        tableWriteTracker.markWritten("member"); // JDBC로 직접 실행하므로 StatementInspector를 거치지 않는다.
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "update member set age = age + ? where member_id = ?")) {
+                int batched = 0;
+                for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+                    statement.setLong(1, entry.getValue());
+                    statement.setLong(2, entry.getKey());
+                    statement.addBatch();
+                    if (++batched % CHUNK_SIZE == 0) {
+                        statement.executeBatch();
+                    }
+                }
+                statement.executeBatch();
+            }
+        });
+
+        PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        StatelessSessions.execute(em, session -> {
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                List<Member> members = session.createQuery("select m from Member m where m.id in :ids", Member.class)
+                        .setParameter("ids", ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())))
+                        .list();
+                for (Member member : members) {
+                    int newAge = member.getAge();
+                    int age = (int) (newAge - deltas.get(member.getId()));
+                    Long teamId = member.getTeam() == null ? null : (Long) util.getIdentifier(member.getTeam());
+                    teamStatsAggregate.recordMove(teamId,
+                            TeamStatsAggregate.bucket(age), TeamStatsAggregate.bucket(newAge), 1);
+                }
+                outboxEventListener.writeStateless(session, "UPDATED", members);
+            }
+            return null;
+        });
+    }
+
+    private ConcurrentHashMap<Long, AtomicLong> stripe(Long memberId) {
+        int hash = memberId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,280 @@
+package study.datajpa.stats;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.TeamStatsDto;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * [팀 통계 메모리 집계] <br/>
+ * 팀별 회원 수와 나이대(10살 단위) 히스토그램을 메모리에 유지한다. <br/>
+ * 조회는 O(1)이고, 변경은 Member 이벤트(TeamStatsEventListener)와 벌크 연산(TeamStatsBulkAdvice)이 <br/>
+ * 커밋된 뒤에 증감(delta)으로 반영한다. <br/>
+ * 증감을 계산할 수 없는 변경은 markStale()로 표시하고 커밋 후 전체 재구성(rebuild)한다. <br/>
+ * 재구성과 증감 반영의 순서 : 증감을 기록한 트랜잭션은 종료될 때까지 commitGate 읽기 락을 잡고, <br/>
+ * 재구성은 쓰기 락을 잡은 채 GROUP BY 조회 → 교체한다. 따라서 모든 증감은 조회 전에 커밋 + 반영(조회 결과에 포함)되었거나 <br/>
+ * 조회가 끝난 뒤에 커밋되어 새 집계에 반영된다. (누락, 중복 없음. 재구성 중에는 회원 변경 트랜잭션의 커밋이 대기한다.) <br/>
+ * 쓰기 락은 datajpa.team-stats.rebuild-wait-ms까지만 기다린다. (대기 중인 쓰기 락은 새 읽기 락도 막으므로 <br/>
+ * 긴 트랜잭션(배치 등) 하나 때문에 모든 회원 변경이 멈추지 않도록) 얻지 못하면 stale로 표시하고 <br/>
+ * 증감을 기록한 트랜잭션이 끝날 때마다 다시 시도한다. (isStale() 동안 조회 값은 재구성 전 집계) <br/>
+ * 주의 : StatelessSession, 순수 JPA 벌크 연산(MemberJpaRepository) 등 이벤트가 없는 변경은 반영되지 않는다. (check()로 확인)
+ */
+@Component
+public class TeamStatsAggregate {
+
+    public static final int BUCKETS = 11;
+
+    private static final String GROUP_BY_TEAM_AND_AGE =
+            "select m.team.id, m.age, count(m) from Member m where m.team is not null group by m.team.id, m.age";
+
+    private final EntityManager em;
+    private final TransactionTemplate newTransaction;
+    private volatile Map<Long, Counters> teams = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock commitGate = new ReentrantReadWriteLock();
+    private final long rebuildWaitMs;
+    /** 재구성이 필요하지만 쓰기 락을 얻지 못한 상태 */
+    private volatile boolean stale;
+
+    public TeamStatsAggregate(EntityManager em, PlatformTransactionManager transactionManager,
+                              @Value("${datajpa.team-stats.rebuild-wait-ms:100}") long rebuildWaitMs) {
+        this.em = em;
+        this.rebuildWaitMs = rebuildWaitMs;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.newTransaction.setReadOnly(true);
+    }
+
+    public static int bucket(int age) {
+        return Math.max(0, Math.min(age / 10, BUCKETS - 1));
+    }
+
+    public TeamStatsDto get(Long teamId) {
+        Counters counters = teams.get(teamId);
+        return counters == null ? new TeamStatsDto(teamId, 0, new long[BUCKETS]) : counters.snapshot(teamId);
+    }
+
+    public List<TeamStatsDto> getAll() {
+        List<TeamStatsDto> result = new ArrayList<>();
+        teams.forEach((teamId, counters) -> result.add(counters.snapshot(teamId)));
+        result.sort(Comparator.comparing(TeamStatsDto::getTeamId));
+        return result;
+    }
+
+    /**
+     * 회원 1명 증감 기록 (sign : +1 추가, -1 제거) <br/>
+     * 트랜잭션 안이면 커밋 후에 반영하고, 롤백되면 버린다.
+     */
+    public void record(Long teamId, int age, int sign) {
+        if (teamId == null) {
+            return;
+        }
+        Pending pending = pending();
+        if (pending == null) {
+            apply(teamId, bucket(age), sign);
+        } else {
+            pending.deltas.add(new long[]{teamId, bucket(age), sign});
+        }
+    }
+
+    /** 나이대 이동 기록 (벌크 연산 : count명이 from → to 나이대로 이동) */
+    public void recordMove(Long teamId, int fromBucket, int toBucket, long count) {
+        if (teamId == null || fromBucket == toBucket) {
+            return;
+        }
+        Pending pending = pending();
+        if (pending == null) {
+            move(teamId, fromBucket, toBucket, count);
+        } else {
+            pending.moves.add(new long[]{teamId, fromBucket, toBucket, count});
+        }
+    }
+
+    /**
+     * 팀 삭제 기록 (벌크 연산으로 팀의 회원 전체를 삭제하거나 reassignTo 팀으로 옮긴 경우) <br/>
+     * 커밋 후 팀의 카운터를 제거하고 reassignTo가 있으면 그 팀에 더한다. O(1)
+     */
+    public void recordTeamRemoved(Long teamId, Long reassignTo) {
+        Pending pending = pending();
+        if (pending == null) {
+            removeTeam(teamId, reassignTo);
+        } else {
+            pending.removals.add(new Long[]{teamId, reassignTo});
+        }
+    }
+
+    /** 재구성을 미루고 있는지 (진행 중인 트랜잭션이 쓰기 락을 막고 있다.) */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /** 증감을 계산할 수 없는 변경 : 커밋 후 전체 재구성 */
+    public void markStale() {
+        Pending pending = pending();
+        if (pending == null) {
+            rebuild();
+        } else {
+            pending.stale = true;
+        }
+    }
+
+    /**
+     * [재구성] member 테이블을 (team, age)로 GROUP BY 하여 전체를 다시 만든다. O(rows) <br/>
+     * rebuild-wait-ms 안에 쓰기 락을 얻지 못하면 stale로 표시하고 반환한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (commitGate.getReadHoldCount() > 0) {
+            throw new IllegalStateException("Team stats rebuild inside a transaction with pending deltas");
+        }
+        boolean locked;
+        try {
+            locked = commitGate.writeLock().tryLock(rebuildWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            locked = false;
+        }
+        if (!locked) {
+            stale = true; // 증감을 기록한 트랜잭션이 끝날 때 다시 시도한다.
+            return;
+        }
+        try {
+            stale = false; // 락을 잡은 뒤의 표시는 이번 조회 이후의 변경이다.
+            Map<Long, Counters> rebuilt = new ConcurrentHashMap<>();
+            for (Object[] row : groupByTeamAndAge()) {
+                Counters counters = rebuilt.computeIfAbsent((Long) row[0], id -> new Counters());
+                long count = (Long) row[2];
+                counters.count.addAndGet(count);
+                counters.histogram.addAndGet(bucket((Integer) row[1]), count);
+            }
+            synchronized (this) {
+                teams = rebuilt;
+            }
+        } catch (RuntimeException e) {
+            stale = true;
+            throw e;
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+    }
+
+    /**
+     * [정합성 검사] DB 집계 결과와 메모리 집계를 비교하여 어긋난 팀 목록을 반환한다. (비어있으면 정상)
+     */
+    public List<String> check() {
+        Map<Long, long[]> actual = new TreeMap<>();
+        for (Object[] row : groupByTeamAndAge()) {
+            long[] histogram = actual.computeIfAbsent((Long) row[0], id -> new long[BUCKETS]);
+            histogram[bucket((Integer) row[1])] += (Long) row[2];
+        }
+        Set<Long> teamIds = new TreeSet<>(actual.keySet());
+        teamIds.addAll(teams.keySet());
+
+        List<String> mismatches = new ArrayList<>();
+        for (Long teamId : teamIds) {
+            long[] expected = actual.getOrDefault(teamId, new long[BUCKETS]);
+            long[] current = get(teamId).getAgeHistogram();
+            if (!Arrays.equals(expected, current) || Arrays.stream(expected).sum() != get(teamId).getMemberCount()) {
+                mismatches.add("team " + teamId + ": db=" + Arrays.toString(expected)
+                        + " memory=" + Arrays.toString(current) + " count=" + get(teamId).getMemberCount());
+            }
+        }
+        return mismatches;
+    }
+
+    private List<Object[]> groupByTeamAndAge() {
+        return newTransaction.execute(status ->
+                em.createQuery(GROUP_BY_TEAM_AND_AGE, Object[].class).getResultList());
+    }
+
+    private synchronized void apply(Long teamId, int bucket, long sign) {
+        Counters counters = teams.computeIfAbsent(teamId, id -> new Counters());
+        counters.count.addAndGet(sign);
+        counters.histogram.addAndGet(bucket, sign);
+    }
+
+    private synchronized void move(Long teamId, int fromBucket, int toBucket, long count) {
+        Counters counters = teams.computeIfAbsent(teamId, id -> new Counters());
+        counters.histogram.addAndGet(fromBucket, -count);
+        counters.histogram.addAndGet(toBucket, count);
+    }
+
+    private synchronized void removeTeam(Long teamId, Long reassignTo) {
+        Counters removed = teams.remove(teamId);
+        if (removed == null || reassignTo == null) {
+            return;
+        }
+        Counters target = teams.computeIfAbsent(reassignTo, id -> new Counters());
+        target.count.addAndGet(removed.count.get());
+        for (int i = 0; i < BUCKETS; i++) {
+            target.histogram.addAndGet(i, removed.histogram.get(i));
+        }
+    }
+
+    private Pending pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending created = new Pending();
+            commitGate.readLock().lock(); // 재구성 조회와 이 트랜잭션의 커밋이 겹치지 않게 한다.
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    if (!created.stale) {
+                        created.deltas.forEach(delta -> apply(delta[0], (int) delta[1], delta[2]));
+                        created.moves.forEach(move -> move(move[0], (int) move[1], (int) move[2], move[3]));
+                        created.removals.forEach(removal -> removeTeam(removal[0], removal[1]));
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TeamStatsAggregate.this);
+                    commitGate.readLock().unlock();
+                    if ((status == STATUS_COMMITTED && created.stale) || stale) {
+                        rebuild(); // 읽기 락을 놓은 뒤에 재구성한다. (미뤄둔 재구성 포함)
+                    }
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    /** 커밋 대기중인 변경 */
+    private static final class Pending {
+        final List<long[]> deltas = new ArrayList<>();
+        final List<long[]> moves = new ArrayList<>();
+        final List<Long[]> removals = new ArrayList<>();
+        boolean stale;
+    }
+
+    private static final class Counters {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        TeamStatsDto snapshot(Long teamId) {
+            long[] copy = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = histogram.get(i);
+            }
+            return new TeamStatsDto(teamId, count.get(), copy);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package study.datajpa.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.support.RepositoryAdvice;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Member 리포지토리의 @Modifying 벌크 연산을 팀 통계에 반영한다. <br/>
+ * @IncrementsAge : 나이대 경계를 넘는 회원만 (team, age)로 세어 이동 (인덱스가 있는 age 범위 조회) <br/>
+ * 그 외 : 증감을 알 수 없으므로 커밋 후 재구성
+ */
+@Component
+@Order(300)
+@RequiredArgsConstructor
+public class TeamStatsBulkAdvice implements RepositoryAdvice {
+
+    /** 나이대 경계 (x9 → x0)를 넘는 회원. 100세 이상은 같은 칸이므로 제외 */
+    private static final String CROSSING_BUCKET =
+            "select m.team.id, m.age, count(m) from Member m " +
+            "where m.team is not null and m.age >= :minAge and m.age < 100 and mod(m.age, 10) = 9 " +
+            "group by m.team.id, m.age";
+
+    private final TeamStatsAggregate teamStatsAggregate;
+    private final EntityManager em;
+
+    @Override
+    public MethodInterceptor interceptorFor(RepositoryInformation repositoryInformation) {
+        if (!Member.class.equals(repositoryInformation.getDomainType())) {
+            return null;
+        }
+        return invocation -> {
+            Method method = invocation.getMethod();
+            if (!AnnotatedElementUtils.hasAnnotation(method, Modifying.class)) {
+                return invocation.proceed();
+            }
+            IncrementsAge incrementsAge = AnnotatedElementUtils.findMergedAnnotation(method, IncrementsAge.class);
+            if (incrementsAge == null) {
+                Object result = invocation.proceed();
+                teamStatsAggregate.markStale();
+                return result;
+            }
+
+            int minAge = (Integer) argument(method, invocation.getArguments(), incrementsAge.minAgeParam());
+            List<Object[]> crossing = em.createQuery(CROSSING_BUCKET, Object[].class)
+                    .setParameter("minAge", minAge)
+                    .getResultList();
+            Object result = invocation.proceed();
+            for (Object[] row : crossing) {
+                int age = (Integer) row[1];
+                teamStatsAggregate.recordMove((Long) row[0],
+                        TeamStatsAggregate.bucket(age), TeamStatsAggregate.bucket(age + 1), (Long) row[2]);
+            }
+            return result;
+        };
+    }
+
+    private static Object argument(Method method, Object[] args, String name) {
+        for (int i = 0; i < args.length; i++) {
+            Param param = new MethodParameter(method, i).getParameterAnnotation(Param.class);
+            if (param != null && param.value().equals(name)) {
+                return args[i];
+            }
+        }
+        throw new IllegalStateException("No @Param(\"" + name + "\") on " + method);
+    }
+}
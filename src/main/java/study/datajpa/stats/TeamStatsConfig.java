@@ -0,0 +1,31 @@
+package study.datajpa.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * TeamStatsEventListener를 Hibernate 이벤트 레지스트리에 등록한다.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class TeamStatsConfig {
+
+    private final EntityManagerFactory emf;
+    private final TeamStatsAggregate teamStatsAggregate;
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        TeamStatsEventListener listener = new TeamStatsEventListener(teamStatsAggregate);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+}
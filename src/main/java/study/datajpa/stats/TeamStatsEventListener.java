@@ -0,0 +1,83 @@
+package study.datajpa.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * [Hibernate 이벤트 리스너] Member insert/update/delete 시 이전 값과 새 값으로 팀 통계 증감을 계산한다. <br/>
+ * JPA 콜백(@PostUpdate)은 이전 값을 알 수 없으므로 Hibernate 이벤트(oldState)를 사용한다. <br/>
+ * changeTeam으로 팀이 바뀌면 이전 팀 -1, 새 팀 +1 / 나이가 바뀌면 같은 팀 안에서 나이대만 이동한다.
+ */
+@RequiredArgsConstructor
+public class TeamStatsEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final TeamStatsAggregate teamStatsAggregate;
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member member = (Member) event.getEntity();
+            teamStatsAggregate.record(teamId(member.getTeam()), member.getAge(), +1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Object[] oldState = event.getOldState();
+        if (oldState == null) { // 준영속 엔티티를 스냅샷 없이 update한 경우
+            teamStatsAggregate.markStale();
+            return;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        int teamIndex = Arrays.asList(names).indexOf("team");
+        int ageIndex = Arrays.asList(names).indexOf("age");
+        Long oldTeam = teamId(oldState[teamIndex]);
+        Long newTeam = teamId(event.getState()[teamIndex]);
+        int oldAge = (Integer) oldState[ageIndex];
+        int newAge = (Integer) event.getState()[ageIndex];
+
+        if (Objects.equals(oldTeam, newTeam)) {
+            teamStatsAggregate.recordMove(newTeam, TeamStatsAggregate.bucket(oldAge), TeamStatsAggregate.bucket(newAge), 1);
+        } else {
+            teamStatsAggregate.record(oldTeam, oldAge, -1);
+            teamStatsAggregate.record(newTeam, newAge, +1);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        Object[] deletedState = event.getDeletedState();
+        teamStatsAggregate.record(teamId(deletedState[Arrays.asList(names).indexOf("team")]),
+                (Integer) deletedState[Arrays.asList(names).indexOf("age")], -1);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /** 프록시를 초기화하지 않고 팀 id를 꺼낸다. */
+    private static Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+}
@@ -0,0 +1,14 @@
+package study.datajpa.stats;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * MemberAgeCounter.scheduledFlush 주기 실행을 켠다. <br/>
+ * datajpa.write-behind.flush-interval-ms가 비정상 종료시 잃을 수 있는 최대 증감 구간이므로 <br/>
+ * 다른 설정의 @EnableScheduling에 기대지 않고 여기서 선언한다.
+ */
+@Configuration
+@EnableScheduling
+public class WriteBehindConfig {
+}
@@ -0,0 +1,125 @@
+package study.datajpa.cache;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class NaturalIdCacheTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    NaturalIdCache naturalIdCache;
+
+    @PersistenceContext
+    EntityManager em;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    public void warmLookupRunsNoQuery() {
+        Member member = memberRepository.save(new Member("natural1", 10));
+        em.flush();
+        assertThat(memberRepository.findMemberByUsername("natural1")).isSameAs(member); // 쿼리 후 id 적재
+
+        statistics.clear();
+        assertThat(memberRepository.findMemberByUsername("natural1")).isSameAs(member);
+        assertThat(memberRepository.findOptionalByUsername("natural1")).containsSame(member);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+        assertThat(memberRepository.findByUsername("natural1")).containsExactly(member); // List 조회는 항상 쿼리
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        em.clear(); // 영속성 컨텍스트에 없으면 PK 조회 1번
+        statistics.clear();
+        Member found = memberRepository.findMemberByUsername("natural1");
+        assertThat(found.getId()).isEqualTo(member.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void duplicateInsertInvalidates() {
+        memberRepository.save(new Member("natural2", 10));
+        em.flush();
+        memberRepository.findMemberByUsername("natural2");
+        assertThat(naturalIdCache.resolve(Member.class, "username", "natural2")).isNotNull();
+
+        memberRepository.save(new Member("natural2", 20));
+        em.flush();
+        assertThat(naturalIdCache.resolve(Member.class, "username", "natural2")).isNull();
+        assertThat(memberRepository.findByUsername("natural2")).hasSize(2);
+        assertThatThrownBy(() -> memberRepository.findMemberByUsername("natural2"))
+                .isInstanceOf(IncorrectResultSizeDataAccessException.class); // 유일성은 쿼리를 실행할 때 확인한다.
+        assertThat(naturalIdCache.resolve(Member.class, "username", "natural2")).isNull();
+    }
+
+    @Test
+    public void renameInvalidatesOldAndNewValue() {
+        Member member = memberRepository.save(new Member("natural3", 10));
+        em.flush();
+        memberRepository.findMemberByUsername("natural3");
+
+        member.setUsername("natural3-renamed");
+        em.flush();
+        assertThat(naturalIdCache.resolve(Member.class, "username", "natural3")).isNull();
+        assertThat(memberRepository.findMemberByUsername("natural3")).isNull();
+        assertThat(memberRepository.findMemberByUsername("natural3-renamed")).isSameAs(member);
+    }
+
+    @Test
+    public void pendingChangeFallsBackToQuery() {
+        memberRepository.save(new Member("natural4", 10));
+        Member other = memberRepository.save(new Member("natural5", 20));
+        em.flush();
+        memberRepository.findMemberByUsername("natural4");
+
+        other.setUsername("natural4"); // flush 전 변경 : 적중으로 1건을 돌려주지 않고 flush 후 쿼리가 2건을 조회해야 한다.
+        assertThatThrownBy(() -> memberRepository.findMemberByUsername("natural4"))
+                .isInstanceOf(IncorrectResultSizeDataAccessException.class);
+    }
+
+    @Test
+    public void unrelatedPendingChangeKeepsHit() {
+        Member member = memberRepository.save(new Member("natural7", 10));
+        Member other = memberRepository.save(new Member("natural8", 20));
+        em.flush();
+        memberRepository.findMemberByUsername("natural7");
+
+        other.setAge(21); // 조회 속성(username)이 아닌 flush 전 변경은 적중을 막지 않는다.
+        statistics.clear();
+        assertThat(memberRepository.findMemberByUsername("natural7")).isSameAs(member);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void bulkRenameIsDetectedOnHit() {
+        Member member = memberRepository.save(new Member("natural6", 10));
+        em.flush();
+        memberRepository.findMemberByUsername("natural6");
+
+        em.createQuery("update Member m set m.username = 'natural6-bulk' where m.id = :id")
+                .setParameter("id", member.getId())
+                .executeUpdate(); // 이벤트 없는 변경
+        em.clear();
+        assertThat(memberRepository.findMemberByUsername("natural6")).isNull();
+        assertThat(naturalIdCache.resolve(Member.class, "username", "natural6")).isNull();
+    }
+}
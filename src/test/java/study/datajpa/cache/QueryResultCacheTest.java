@@ -0,0 +1,69 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 트랜잭션 없이 실행한다. (테스트 트랜잭션 안에서 쓰기가 발생하면 캐시에 적재하지 않는다.) <br/>
+ * 커밋한 데이터가 공유 DB에 남지 않도록 전용 메모리 DB를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:querycache;DB_CLOSE_DELAY=-1")
+class QueryResultCacheTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    QueryResultCache queryResultCache;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void hitUntilMemberTableWritten() {
+        memberRepository.save(new Member("cacheA", 10));
+        queryResultCache.clear();
+
+        List<String> first = memberRepository.findUserNameListOne(); // miss
+        QueryCacheStats before = queryResultCache.stats();
+        List<String> second = memberRepository.findUserNameListOne(); // hit
+        QueryCacheStats after = queryResultCache.stats();
+
+        assertThat(second).isSameAs(first);
+        assertThat(after.getHits()).isEqualTo(before.getHits() + 1);
+
+        //쓰기가 발생하면 다음 조회는 DB에서 다시 가져온다.
+        memberRepository.save(new Member("cacheB", 20));
+        List<String> third = memberRepository.findUserNameListOne();
+        assertThat(third).contains("cacheB");
+        assertThat(queryResultCache.stats().getInvalidations()).isGreaterThan(after.getInvalidations());
+    }
+
+    @Test
+    public void bulkUpdateInvalidates() {
+        memberRepository.save(new Member("cacheC", 30));
+        memberRepository.findUserNameListOfMap();
+        long invalidations = queryResultCache.stats().getInvalidations();
+
+        // @Modifying 벌크 연산도 member 테이블 쓰기로 감지된다.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> memberRepository.bulkAgePlus(30));
+
+        memberRepository.findUserNameListOfMap();
+        assertThat(queryResultCache.stats().getInvalidations()).isEqualTo(invalidations + 1);
+    }
+
+    @Test
+    public void cachedListIsReadOnly() {
+        memberRepository.save(new Member("cacheD", 40));
+        memberRepository.findUserNameListOne();
+        List<String> cached = memberRepository.findUserNameListOne();
+
+        assertThatThrownBy(() -> cached.add("x")).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
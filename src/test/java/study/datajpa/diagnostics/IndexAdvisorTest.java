@@ -0,0 +1,54 @@
+package study.datajpa.diagnostics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 커밋한 데이터가 공유 DB에 남지 않도록 전용 메모리 DB를 사용한다.
+ */
+@SpringBootTest(properties = {"datajpa.index-advisor.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:indexadvisor;DB_CLOSE_DELAY=-1"})
+class IndexAdvisorTest {
+    @Autowired
+    IndexAdvisor indexAdvisor;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void adviseFromTableScanPlan() {
+        String sql = "select member0_.member_id as member_i1_1_ from member member0_ " +
+                "left outer join team team1_ on member0_.team_id=team1_.team_id " +
+                "where member0_.created_by=? and member0_.created_date>=? order by member0_.last_modified_by desc limit ?";
+        String plan = "SELECT ... FROM \"PUBLIC\".\"MEMBER\" \"MEMBER0_\" /* PUBLIC.MEMBER.tableScan */ ...";
+
+        List<IndexAdvice> advices = IndexAdvisor.advise(sql, plan);
+
+        assertThat(advices).hasSize(1);
+        assertThat(advices.get(0).getTable()).isEqualTo("member");
+        assertThat(advices.get(0).getColumns()).containsExactly("created_by", "created_date", "last_modified_by");
+    }
+
+    @Test
+    public void declaredIndexesAreUsed() {
+        memberRepository.save(new Member("advisor", 10));
+        indexAdvisor.reset();
+
+        memberRepository.findByUsername("advisor");
+        memberRepository.findListByUsername("advisor");
+
+        // P6Spy 리스너가 조회를 기록하지 못하면 분석 대상이 없어 아래 검증이 항상 통과하므로 먼저 확인한다.
+        assertThat(indexAdvisor.recordedStatements())
+                .anyMatch(sql -> sql.contains("username=?"));
+
+        //username에는 idx_member_username이 선언되어 있으므로 풀스캔 제안이 없어야 한다.
+        assertThat(indexAdvisor.analyze())
+                .noneMatch(advice -> advice.getSql().contains("username=?"));
+    }
+}
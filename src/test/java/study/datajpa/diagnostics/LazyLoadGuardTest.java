@@ -0,0 +1,115 @@
+package study.datajpa.diagnostics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * OSIV off + fail 모드 : 요청은 테스트 트랜잭션 없이 실행한다. (트랜잭션 밖 지연 로딩을 재현)
+ */
+@SpringBootTest(properties = {
+        "datajpa.lazy-load-guard.enabled=true",
+        "datajpa.lazy-load-guard.mode=FAIL"
+})
+@AutoConfigureMockMvc
+class LazyLoadGuardTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    LazyLoadGuard lazyLoadGuard;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+
+    Team team;
+    Member member;
+
+    @TestConfiguration
+    static class LazyEndpointConfig {
+        @Bean
+        LazyEndpoint lazyEndpoint(MemberRepository memberRepository) {
+            return new LazyEndpoint(memberRepository);
+        }
+    }
+
+    /** fetch plan 없이 team을 지연 로딩하는 엔드포인트 */
+    @RestController
+    static class LazyEndpoint {
+        private final MemberRepository memberRepository;
+
+        LazyEndpoint(MemberRepository memberRepository) {
+            this.memberRepository = memberRepository;
+        }
+
+        @GetMapping("/test/lazy-team/{id}")
+        public String teamName(@PathVariable("id") Long id) {
+            return memberRepository.findById(id).get().getTeam().getName();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        team = teamRepository.save(new Team("lazyGuardTeam"));
+        member = memberRepository.save(new Member("lazyGuard", 10, team));
+        lazyLoadGuard.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.delete(member);
+        teamRepository.delete(team);
+    }
+
+    @Test
+    public void fetchPlanEndpointsDoNotLazyLoad() throws Exception {
+        mockMvc.perform(get("/members/" + member.getId() + "/detail").param("expand", "team"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.teamName").value("lazyGuardTeam"));
+        mockMvc.perform(get("/members5").param("expand", "team").param("size", "5"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/members").param("size", "5")).andExpect(status().isOk());
+        mockMvc.perform(get("/members2/" + member.getId())).andExpect(status().isOk());
+
+        assertThat(lazyLoadGuard.violations()).isEmpty();
+    }
+
+    @Test
+    public void lazyLoadInEndpointFailsWithEndpointName() {
+        assertThatThrownBy(() -> mockMvc.perform(get("/test/lazy-team/" + member.getId())))
+                .hasRootCauseInstanceOf(LazyLoadOutsideTransactionException.class);
+
+        assertThat(lazyLoadGuard.violations()).singleElement().satisfies(violation -> {
+            assertThat(violation.getEndpoint()).isEqualTo("GET /test/lazy-team/{id} (LazyEndpoint#teamName)");
+            assertThat(violation.getTarget()).isEqualTo("Team");
+            assertThat(violation.getCount()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    public void lazyLoadOutsideRequest() {
+        Member loaded = memberRepository.findById(member.getId()).get();
+
+        assertThatThrownBy(() -> loaded.getTeam().getName())
+                .isInstanceOf(LazyLoadOutsideTransactionException.class)
+                .hasMessageContaining(LazyLoadGuard.NO_REQUEST);
+    }
+}
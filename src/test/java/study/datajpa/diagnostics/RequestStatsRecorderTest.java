@@ -0,0 +1,52 @@
+package study.datajpa.diagnostics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "datajpa.request-stats.enabled=true",
+        "datajpa.request-stats.slow-threshold-ms=0" // 모든 요청의 내역을 로그로 남긴다.
+})
+@AutoConfigureMockMvc
+@Transactional
+class RequestStatsRecorderTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    RequestStatsRecorder requestStatsRecorder;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void recordsSessionStatsPerRequest() throws Exception {
+        Member member = memberRepository.save(new Member("requestStats", 10));
+        em.flush();
+        em.clear();
+
+        mockMvc.perform(get("/members/" + member.getId())).andExpect(status().isOk());
+
+        RequestStats stats = requestStatsRecorder.recent().get(0);
+        assertThat(stats.getUri()).isEqualTo("/members/" + member.getId());
+        assertThat(stats.getStatus()).isEqualTo(200);
+        assertThat(stats.getEntitiesLoaded()).isEqualTo(1);
+        assertThat(stats.getStatements()).isEqualTo(1);
+        assertThat(stats.getCollectionsFetched()).isEqualTo(0);
+        assertThat(stats.dump()).contains("entities loaded      : 1");
+    }
+}
@@ -0,0 +1,88 @@
+package study.datajpa.entity;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * [벤치마크] 팀 규모별로 회원 100명을 추가하는 시간 <br/>
+ * Team.members를 초기화하지 않으므로 팀 규모와 무관하게 비슷해야 한다. (컬렉션 로딩 0회) <br/>
+ * 실행 : ./gradlew benchmark (-Dbenchmark.team-sizes=100,1000,10000 으로 규모를 바꿀 수 있다.)
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:changeteam;DB_CLOSE_DELAY=-1",
+        "decorator.datasource.p6spy.enable-logging=false"
+})
+class ChangeTeamBenchmarkTest {
+    private static final int ROUNDS = 5;
+    private static final int ADDED = 100;
+    /** 가장 큰 팀과 가장 작은 팀의 중앙값 비율 상한 (팀 규모는 100배 차이) */
+    private static final double MAX_RATIO = 3.0;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    @Transactional
+    public void changeTeamStaysFlatAsTeamGrows() {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        List<Long> medians = new ArrayList<>();
+        try {
+            for (String size : System.getProperty("benchmark.team-sizes", "100,1000,10000").split(",")) {
+                int teamSize = Integer.parseInt(size.trim());
+                Team team = new Team("bench" + teamSize);
+                em.persist(team);
+                List<Member> existing = new ArrayList<>(teamSize);
+                for (int i = 0; i < teamSize; i++) {
+                    existing.add(new Member("bench" + i, i % 100, team));
+                }
+                memberRepository.insertStateless(existing);
+                em.clear();
+
+                long[] nanos = new long[ROUNDS];
+                for (int round = 0; round < ROUNDS; round++) {
+                    Team managed = em.find(Team.class, team.getId());
+                    statistics.clear();
+                    long start = System.nanoTime();
+                    for (int i = 0; i < ADDED; i++) {
+                        em.persist(new Member("added" + i, 20, managed));
+                    }
+                    em.flush();
+                    nanos[round] = System.nanoTime() - start;
+
+                    assertThat(Hibernate.isInitialized(managed.getMembers())).isFalse();
+                    assertThat(statistics.getCollectionLoadCount()).isEqualTo(0);
+                    em.clear();
+                }
+                Arrays.sort(nanos);
+                medians.add(nanos[ROUNDS / 2]);
+                System.out.printf("teamSize = %d, add %d members median = %.3fms (min %.3fms, max %.3fms)%n",
+                        teamSize, ADDED, nanos[ROUNDS / 2] / 1e6, nanos[0] / 1e6, nanos[ROUNDS - 1] / 1e6);
+            }
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        double ratio = (double) medians.get(medians.size() - 1) / medians.get(0);
+        assertThat(ratio).as("largest / smallest team median").isLessThan(MAX_RATIO);
+    }
+}
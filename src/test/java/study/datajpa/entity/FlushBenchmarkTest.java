@@ -0,0 +1,75 @@
+package study.datajpa.entity;
+
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * [벤치마크] 관리 중인 엔티티 수별 flush 비용 <br/>
+ * 1%만 변경한 상태의 flush 시간 중앙값을 출력한다. <br/>
+ * 향상 전/후 비교 : ./gradlew benchmark -PhibernateEnhance=false, ./gradlew benchmark <br/>
+ * (-Dbenchmark.sizes=1000,10000 으로 규모를 바꿀 수 있다.)
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+        "decorator.datasource.p6spy.enable-logging=false"
+})
+class FlushBenchmarkTest {
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    @Transactional
+    public void flushCost() {
+        boolean enhanced = SelfDirtinessTracker.class.isAssignableFrom(Member.class);
+        System.out.println("dirty tracking enhanced = " + enhanced);
+
+        for (String size : System.getProperty("benchmark.sizes", "1000,10000,100000").split(",")) {
+            int count = Integer.parseInt(size.trim());
+            List<Member> members = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                members.add(new Member("flush" + count + "_" + i, i % 100));
+            }
+            memberRepository.insertStateless(members);
+            em.clear();
+
+            List<Member> managed = em.createQuery("select m from Member m where m.username like :prefix", Member.class)
+                    .setParameter("prefix", "flush" + count + "_%") // 작은 규모부터 저장하므로 _ 와일드카드가 다른 규모와 겹치지 않는다.
+                    .getResultList();
+            assertThat(managed).hasSize(count);
+
+            long[] nanos = new long[ROUNDS];
+            for (int round = 0; round < ROUNDS; round++) {
+                for (int i = round; i < count; i += 100) { // 1% 변경
+                    Member member = managed.get(i);
+                    member.setAge(member.getAge() + 1);
+                }
+                long start = System.nanoTime();
+                em.flush();
+                nanos[round] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("managed = %d, enhanced = %s, flush median = %.3fms (min %.3fms, max %.3fms)%n",
+                    count, enhanced, nanos[ROUNDS / 2] / 1e6, nanos[0] / 1e6, nanos[ROUNDS - 1] / 1e6);
+            em.clear();
+        }
+    }
+}
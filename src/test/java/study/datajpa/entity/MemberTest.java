@@ -1,20 +1,30 @@
 package study.datajpa.entity;
 
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Commit;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.repository.MemberRepository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.*;
+
 @SpringBootTest
 class MemberTest {
 
     @PersistenceContext
     EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
 
     @Test
     @Transactional
@@ -50,4 +60,58 @@ class MemberTest {
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Team.members를 초기화하지 않고 회원을 추가한다. (팀 규모와 무관한 비용 - ChangeTeamBenchmarkTest)
+     */
+    @Test
+    @Transactional
+    public void changeTeamDoesNotLoadMembers() {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            Team team = new Team("changeTeam");
+            em.persist(team);
+            List<Member> existing = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                existing.add(new Member("changeTeam" + i, i, team));
+            }
+            memberRepository.insertStateless(existing);
+            em.clear();
+
+            Team managed = em.find(Team.class, team.getId());
+            statistics.clear();
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("added" + i, 20, managed));
+            }
+            em.flush();
+
+            assertThat(Hibernate.isInitialized(managed.getMembers())).isFalse();
+            assertThat(statistics.getCollectionLoadCount()).isEqualTo(0);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    /**
+     * 팀을 옮겨도 이전 팀의 members를 초기화하지 않는다. (향상된 빌드 포함 - 연관관계 관리를 끈다.)
+     */
+    @Test
+    @Transactional
+    public void setTeamDoesNotLoadPreviousMembers() {
+        Team teamA = new Team("setTeamA");
+        Team teamB = new Team("setTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member = new Member("setTeam", 10, teamA);
+        em.persist(member);
+        em.flush();
+        em.clear();
+
+        Member managed = em.find(Member.class, member.getId());
+        Team previous = managed.getTeam();
+        managed.setTeam(em.find(Team.class, teamB.getId()));
+        em.flush();
+
+        assertThat(Hibernate.isInitialized(previous.getMembers())).isFalse();
+    }
+}
@@ -0,0 +1,122 @@
+package study.datajpa.fixture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 적재는 문장/batch 단위로 커밋되므로 별도 메모리 DB에서 테스트 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:fixture;DB_CLOSE_DELAY=-1")
+class DatasetGeneratorTest {
+    @Autowired
+    DatasetGenerator datasetGenerator;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void bothModesLoadTheSameDistribution() {
+        DatasetReport csv = datasetGenerator.generate(spec().mode(DatasetSpec.LoadMode.CSVREAD));
+        DatasetReport batch = datasetGenerator.generate(spec().mode(DatasetSpec.LoadMode.JDBC_BATCH));
+
+        assertThat(summary(csv)).isEqualTo(summary(batch));
+        assertThat(count("select count(*) from member where member_id between ? and ?", csv)).isEqualTo(5000);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from item where id = ?", Long.class, "item" + (csv.firstTeamId() + 20))).isEqualTo(1);
+    }
+
+    @Test
+    public void distributionsAreApplied() {
+        DatasetReport report = datasetGenerator.generate(spec());
+
+        List<Long> teamSizes = jdbcTemplate.queryForList(
+                "select count(*) from member where member_id between ? and ? and team_id is not null " +
+                        "group by team_id order by team_id",
+                Long.class, report.getFirstId(), report.getFirstId() + report.getMembers() - 1);
+        assertThat(teamSizes.get(0)).isGreaterThan(teamSizes.get(teamSizes.size() - 1) * 5); // zipf : 앞쪽 팀에 몰린다.
+
+        long teamless = count("select count(*) from member where member_id between ? and ? and team_id is null", report);
+        assertThat(teamless).isBetween(300L, 700L); // 10%
+
+        long usernames = count("select count(distinct username) from member where member_id between ? and ?", report);
+        assertThat(usernames).isLessThanOrEqualTo(100);
+
+        Integer maxAge = jdbcTemplate.queryForObject("select max(age) from member where member_id between ? and ?",
+                Integer.class, report.getFirstId(), report.getFirstId() + report.getMembers() - 1);
+        assertThat(maxAge).isLessThanOrEqualTo(60);
+    }
+
+    @Test
+    public void sequenceContinuesAfterReservedIds() {
+        DatasetReport report = datasetGenerator.generate(spec());
+
+        Member saved = memberRepository.save(new Member("afterDataset", 1));
+
+        assertThat(saved.getId()).isGreaterThanOrEqualTo(report.firstTeamId() + report.getTeams() + report.getItems());
+        memberRepository.delete(saved);
+    }
+
+    @Test
+    public void reservationDoesNotOverlapConcurrentInserts() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AtomicBoolean loading = new AtomicBoolean(true);
+            Future<List<Long>> saving = executor.submit(() -> {
+                List<Long> ids = new ArrayList<>();
+                while (loading.get() || ids.isEmpty()) {
+                    ids.add(memberRepository.save(new Member("concurrent" + ids.size(), 1)).getId());
+                }
+                return ids;
+            });
+            DatasetReport report = datasetGenerator.generate(spec().mode(DatasetSpec.LoadMode.JDBC_BATCH));
+            loading.set(false);
+
+            long lastId = report.firstTeamId() + report.getTeams() + report.getItems() - 1;
+            List<Long> ids = saving.get(30, TimeUnit.SECONDS);
+            assertThat(ids).noneMatch(id -> id >= report.getFirstId() && id <= lastId);
+            ids.forEach(memberRepository::deleteById);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DatasetSpec spec() {
+        return new DatasetSpec()
+                .members(5000)
+                .teams(20)
+                .items(50)
+                .teamSizeSkew(1.2)
+                .teamlessRatio(0.1)
+                .ages(Distribution.normal(30, 8, 20, 60))
+                .usernameCardinality(100)
+                .seed(7);
+    }
+
+    private long count(String sql, DatasetReport report) {
+        return jdbcTemplate.queryForObject(sql, Long.class,
+                report.getFirstId(), report.getFirstId() + report.getMembers() - 1);
+    }
+
+    /** id를 뺀 내용 비교 : 나이 합, 팀 없는 회원 수, 서로 다른 username 수 */
+    private String summary(DatasetReport report) {
+        return jdbcTemplate.queryForObject(
+                "select sum(age) || ':' || (count(*) - count(team_id)) || ':' || count(distinct username) " +
+                        "from member where member_id between ? and ?",
+                String.class, report.getFirstId(), report.getFirstId() + report.getMembers() - 1);
+    }
+}
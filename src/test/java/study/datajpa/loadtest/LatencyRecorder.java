@@ -0,0 +1,58 @@
+package study.datajpa.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 엔드포인트 하나의 응답 시간 기록 <br/>
+ * 모든 표본(ns)을 보관했다가 요약할 때 정렬해서 백분위를 구한다. (표본 100만건 = 8MB)
+ */
+final class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    synchronized void record(long nanos, boolean success) {
+        if (!success) {
+            errors++;
+        }
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    synchronized Map<String, Object> summarize(double seconds, long sqlStatements) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", size);
+        summary.put("errors", errors);
+        summary.put("throughputPerSecond", round(size / seconds));
+        summary.put("p50Ms", millis(percentile(sorted, 0.50)));
+        summary.put("p99Ms", millis(percentile(sorted, 0.99)));
+        summary.put("p999Ms", millis(percentile(sorted, 0.999)));
+        summary.put("maxMs", millis(size == 0 ? 0 : sorted[size - 1]));
+        summary.put("sqlStatements", sqlStatements);
+        summary.put("sqlPerRequest", size == 0 ? 0 : round((double) sqlStatements / size));
+        return summary;
+    }
+
+    /** nearest-rank 백분위 */
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(rank, sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,97 @@
+package study.datajpa.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * [부하 생성기] <br/>
+ * closed-loop : clients개 스레드가 각자 응답을 받자마자 다음 요청을 보낸다. (처리량 한계 측정) <br/>
+ * open-loop : 초당 rate건을 일정 간격으로 발생시킨다. 응답 시간은 "보냈어야 할 시각"부터 재므로 <br/>
+ * 서버가 밀려 대기열이 생긴 시간도 포함된다. (coordinated omission 보정) <br/>
+ * 엔드포인트는 요청마다 settings.endpoints 중 무작위로 고른다.
+ */
+final class LoadDriver {
+    private final String baseUrl;
+    private final LoadTestSettings settings;
+    private final HttpClient client;
+
+    LoadDriver(String baseUrl, LoadTestSettings settings) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    Map<LoadEndpoint, LatencyRecorder> run(Duration duration) throws InterruptedException {
+        Map<LoadEndpoint, LatencyRecorder> recorders = new EnumMap<>(LoadEndpoint.class);
+        settings.endpoints.forEach(endpoint -> recorders.put(endpoint, new LatencyRecorder()));
+        ExecutorService pool = Executors.newFixedThreadPool(settings.clients);
+        try {
+            if (settings.openLoop()) {
+                openLoop(pool, recorders, duration);
+            } else {
+                closedLoop(pool, recorders, duration);
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return recorders;
+    }
+
+    private void closedLoop(ExecutorService pool, Map<LoadEndpoint, LatencyRecorder> recorders, Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        for (int i = 0; i < settings.clients; i++) {
+            pool.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    call(recorders, System.nanoTime());
+                }
+            });
+        }
+    }
+
+    private void openLoop(ExecutorService pool, Map<LoadEndpoint, LatencyRecorder> recorders, Duration duration) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / settings.rate);
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        for (long intended = start; intended < deadline; intended += interval) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long scheduled = intended;
+            pool.execute(() -> call(recorders, scheduled));
+        }
+    }
+
+    private void call(Map<LoadEndpoint, LatencyRecorder> recorders, long startNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<LoadEndpoint> endpoints = settings.endpoints;
+        LoadEndpoint endpoint = endpoints.get(random.nextInt(endpoints.size()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.uri(random, settings)))
+                .header(SqlStatementCounter.HEADER, endpoint.name())
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        boolean success;
+        try {
+            success = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            success = false;
+        }
+        recorders.get(endpoint).record(System.nanoTime() - startNanos, success);
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 부하 대상 MemberController 엔드포인트 <br/>
+ * 회원 id는 1 ~ members로 저장되어 있다. (DatasetGenerator)
+ */
+enum LoadEndpoint {
+    MEMBERS("/members") {
+        @Override
+        String uri(ThreadLocalRandom random, LoadTestSettings settings) {
+            return "/members?page=" + random.nextInt(pages(settings)) + "&size=" + settings.pageSize;
+        }
+    },
+    MEMBER("/members/{id}") {
+        @Override
+        String uri(ThreadLocalRandom random, LoadTestSettings settings) {
+            return "/members/" + (1 + random.nextInt(settings.members));
+        }
+    },
+    MEMBER2("/members2/{id}") {
+        @Override
+        String uri(ThreadLocalRandom random, LoadTestSettings settings) {
+            return "/members2/" + (1 + random.nextInt(settings.members));
+        }
+    },
+    MEMBERS5("/members5") {
+        @Override
+        String uri(ThreadLocalRandom random, LoadTestSettings settings) {
+            return "/members5?page=" + random.nextInt(pages(settings)) + "&size=" + settings.pageSize;
+        }
+    };
+
+    final String pattern;
+
+    LoadEndpoint(String pattern) {
+        this.pattern = pattern;
+    }
+
+    abstract String uri(ThreadLocalRandom random, LoadTestSettings settings);
+
+    private static int pages(LoadTestSettings settings) {
+        return Math.max(1, settings.members / settings.pageSize);
+    }
+}
@@ -0,0 +1,66 @@
+package study.datajpa.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 부하 테스트 설정 (시스템 프로퍼티 loadtest.*) <br/>
+ * 예) ./gradlew loadTest -Dloadtest.mode=open -Dloadtest.rate=500 -Dloadtest.members=100000
+ */
+final class LoadTestSettings {
+    final String mode; // closed : clients명이 응답을 받는 즉시 다음 요청, open : 초당 rate건을 일정 간격으로 요청
+    final int clients;
+    final double rate;
+    final Duration warmup;
+    final Duration duration;
+    final int members;
+    final int teams; // 0이면 팀 없이 저장
+    final int pageSize;
+    final List<LoadEndpoint> endpoints;
+    final Path outputDir;
+    final String commit;
+
+    private LoadTestSettings(Properties properties) {
+        mode = properties.getProperty("loadtest.mode", "closed");
+        clients = Integer.parseInt(properties.getProperty("loadtest.clients", "16"));
+        rate = Double.parseDouble(properties.getProperty("loadtest.rate", "200"));
+        warmup = Duration.parse("PT" + properties.getProperty("loadtest.warmup", "5s"));
+        duration = Duration.parse("PT" + properties.getProperty("loadtest.duration", "20s"));
+        members = Integer.parseInt(properties.getProperty("loadtest.members", "10000"));
+        teams = Integer.parseInt(properties.getProperty("loadtest.teams", "0"));
+        pageSize = Integer.parseInt(properties.getProperty("loadtest.page-size", "20"));
+        endpoints = new ArrayList<>();
+        for (String name : properties.getProperty("loadtest.endpoints", "MEMBERS,MEMBER,MEMBER2,MEMBERS5").split(",")) {
+            endpoints.add(LoadEndpoint.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        outputDir = Paths.get(properties.getProperty("loadtest.output-dir", "build/loadtest"));
+        commit = properties.getProperty("loadtest.commit", "unknown");
+        if (!"closed".equals(mode) && !"open".equals(mode)) {
+            throw new IllegalArgumentException("loadtest.mode must be closed or open: " + mode);
+        }
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(System.getProperties());
+    }
+
+    boolean openLoop() {
+        return "open".equals(mode);
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("mode", mode);
+        map.put("clients", clients);
+        map.put("rate", openLoop() ? rate : null);
+        map.put("warmupSeconds", warmup.getSeconds());
+        map.put("durationSeconds", duration.getSeconds());
+        map.put("members", members);
+        map.put("teams", teams);
+        map.put("pageSize", pageSize);
+        map.put("endpoints", endpoints);
+        return map;
+    }
+}
@@ -0,0 +1,92 @@
+package study.datajpa.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import study.datajpa.fixture.DatasetGenerator;
+import study.datajpa.fixture.DatasetReport;
+import study.datajpa.fixture.DatasetSpec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * [MemberController 부하 테스트] <br/>
+ * 메모리 H2에 데이터를 채운 뒤 실제 서버(랜덤 포트)에 HTTP로 부하를 건다. <br/>
+ * 엔드포인트별 처리량, p50/p99/p999 응답 시간, SQL 수를 build/loadtest/*.json으로 저장한다. (커밋 간 비교용) <br/>
+ * 일반 test에서는 제외되며 ./gradlew loadTest 로 실행한다. (설정은 LoadTestSettings 참고)
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+        "decorator.datasource.p6spy.enable-logging=false" // SQL 로그 출력이 측정을 왜곡하지 않도록
+})
+class MemberControllerLoadTest {
+    @LocalServerPort
+    int port;
+    @Autowired
+    DatasetGenerator datasetGenerator;
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @TestConfiguration
+    static class SqlCountConfig {
+        @Bean
+        SqlStatementCounter sqlStatementCounter() {
+            return new SqlStatementCounter();
+        }
+
+        @Bean
+        FilterRegistrationBean<?> sqlStatementCounterFilter(SqlStatementCounter counter) {
+            return new FilterRegistrationBean<>(counter.filter());
+        }
+    }
+
+    @Test
+    public void load() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        DatasetReport dataset = datasetGenerator.generate(new DatasetSpec()
+                .members(settings.members)
+                .teams(settings.teams));
+        assertThat(dataset.getFirstId()).isEqualTo(1); // LoadEndpoint는 회원 id 1 ~ members를 조회한다.
+
+        LoadDriver driver = new LoadDriver("http://localhost:" + port, settings);
+        driver.run(settings.warmup);
+        sqlStatementCounter.reset();
+        Map<LoadEndpoint, LatencyRecorder> recorders = driver.run(settings.duration);
+
+        double seconds = settings.duration.toMillis() / 1000.0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        recorders.forEach((endpoint, recorder) -> endpoints.put(endpoint.pattern,
+                recorder.summarize(seconds, sqlStatementCounter.count(endpoint.name()))));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("commit", settings.commit);
+        result.put("startedAt", LocalDateTime.now().toString());
+        result.put("settings", settings.toMap());
+        result.put("endpoints", endpoints);
+
+        Files.createDirectories(settings.outputDir);
+        Path file = settings.outputDir.resolve("load-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + "-" + settings.commit + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(result));
+        System.out.println("load test result = " + file.toAbsolutePath());
+
+        assertThat(endpoints).hasSize(settings.endpoints.size());
+    }
+}
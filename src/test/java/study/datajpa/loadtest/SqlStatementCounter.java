@@ -0,0 +1,59 @@
+package study.datajpa.loadtest;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 엔드포인트별 실행 SQL 수 <br/>
+ * 부하 클라이언트가 보낸 X-Load-Endpoint 헤더를 요청 스레드에 묶어두고(filter), <br/>
+ * 그 스레드에서 실행된 JDBC 문을 P6Spy 이벤트로 센다.
+ */
+final class SqlStatementCounter extends JdbcEventListener {
+    static final String HEADER = "X-Load-Endpoint";
+
+    private final ThreadLocal<String> currentEndpoint = new ThreadLocal<>();
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String endpoint = currentEndpoint.get();
+        if (endpoint != null) {
+            counts.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+        }
+    }
+
+    long count(String endpoint) {
+        LongAdder adder = counts.get(endpoint);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    void reset() {
+        counts.clear();
+    }
+
+    OncePerRequestFilter filter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                currentEndpoint.set(request.getHeader(HEADER));
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    currentEndpoint.remove();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = "datajpa.repository-metrics.enabled=true")
+@Transactional
+class RepositoryMetricsTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    RepositoryMetrics repositoryMetrics;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void recordsRowsEntitiesAndExceptions() {
+        memberRepository.save(new Member("metrics", 10));
+        memberRepository.save(new Member("metrics", 20));
+        em.flush();
+        em.clear();
+        repositoryMetrics.reset();
+
+        memberRepository.findByUsername("metrics");
+        assertThatThrownBy(() -> memberRepository.findMemberByUsername("metrics"))
+                .isInstanceOf(IncorrectResultSizeDataAccessException.class);
+
+        RepositoryMethodStats findByUsername = stats("MemberRepository.findByUsername(String)");
+        assertThat(findByUsername.getCalls()).isEqualTo(1);
+        assertThat(findByUsername.getRows()).isEqualTo(2);
+        assertThat(findByUsername.getEntitiesHydrated()).isEqualTo(2);
+        assertThat(findByUsername.getMaxMs()).isGreaterThan(0);
+
+        RepositoryMethodStats single = stats("MemberRepository.findMemberByUsername(String)");
+        assertThat(single.getErrors()).isEqualTo(1);
+        assertThat(single.getExceptions()).containsValue(1L); // 변환 전 JPA 예외 (스프링 예외 변환은 바깥쪽에서 일어난다.)
+    }
+
+    private RepositoryMethodStats stats(String method) {
+        return repositoryMetrics.snapshot().stream()
+                .filter(stats -> stats.getMethod().equals(method))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no metrics for " + method));
+    }
+}
@@ -0,0 +1,78 @@
+package study.datajpa.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.OutboxEvent;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 커밋한 데이터가 공유 DB에 남지 않도록 전용 메모리 DB를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1")
+class OutboxRelayTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    OutboxRelay outboxRelay;
+    @Autowired
+    RecordingSink recordingSink;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    static class StubSinkConfig {
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+
+    /** 로컬 스텁 : 전달받은 이벤트를 그대로 보관한다. */
+    static class RecordingSink implements OutboxSink {
+        final List<OutboxEvent> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void deliver(List<OutboxEvent> events) {
+            received.addAll(events);
+        }
+    }
+
+    @Test
+    public void committedChangesAreRelayed() throws Exception {
+        Member member = memberRepository.save(new Member("outbox1", 10));
+        member.setAge(11);
+        memberRepository.save(member);
+        memberRepository.delete(member);
+        outboxRelay.drain();
+
+        String id = String.valueOf(member.getId());
+        assertThat(recordingSink.received)
+                .filteredOn(event -> "Member".equals(event.getAggregateType()) && id.equals(event.getAggregateId()))
+                .extracting("eventType")
+                .containsExactly("CREATED", "UPDATED", "DELETED");
+    }
+
+    @Test
+    public void rolledBackChangesAreNotRecorded() throws Exception {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.save(new Member("outboxRollback", 10));
+            memberRepository.flush();
+            status.setRollbackOnly();
+        });
+        outboxRelay.drain();
+
+        assertThat(recordingSink.received)
+                .noneMatch(event -> event.getPayload().contains("outboxRollback"));
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.repository;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.BatchPersistenceContext;
+import study.datajpa.repository.support.BatchSession;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class BatchPersistenceContextTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    BatchPersistenceContext batchPersistenceContext;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void flushAndClearAtThreshold() {
+        BatchSession result = batchPersistenceContext.execute(10, Long.MAX_VALUE, batch -> {
+            Team team = batch.pin(teamRepository.save(new Team("batchTeam"))); // 1
+            for (int i = 0; i < 35; i++) {
+                memberRepository.save(new Member("batch" + i, i, team)); // 관리 엔티티 10개(팀 + 9명)마다 비운다.
+            }
+            assertThat(em.contains(team)).isTrue(); // pin
+            return batch;
+        });
+
+        assertThat(result.getFlushes()).isEqualTo(3);
+        assertThat(result.getDetached()).isEqualTo(27);
+        assertThat(result.getPeakEntities()).isEqualTo(10);
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(9); // 팀 + 8명
+
+        em.flush();
+        assertThat(em.createQuery("select count(m) from Member m where m.username like 'batch%'", Long.class)
+                .getSingleResult()).isEqualTo(35);
+    }
+
+    @Test
+    public void pinnedTeamDropsDetachedMembers() {
+        batchPersistenceContext.execute(10, Long.MAX_VALUE, batch -> {
+            Team team = batch.pin(teamRepository.save(new Team("batchTeam")));
+            for (int i = 0; i < 35; i++) {
+                memberRepository.save(new Member("batch" + i, i, team));
+            }
+            // 비울 때 members를 초기화되지 않은 컬렉션으로 바꾸므로 분리한 27명을 붙잡지 않는다.
+            assertThat(Hibernate.isInitialized(team.getMembers())).isFalse();
+            assertThat(em.contains(team)).isTrue();
+            return null;
+        });
+
+        em.flush();
+        em.clear();
+        Team team = em.createQuery("select t from Team t where t.name = 'batchTeam'", Team.class).getSingleResult();
+        assertThat(team.getMembers()).hasSize(35);
+    }
+}
@@ -0,0 +1,123 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.CountQueryRewriter;
+import study.datajpa.repository.support.QueryArguments;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CountQueryRewriterTest {
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void rewrite() {
+        CountQueryRewriter rewriter = new CountQueryRewriter(em.getMetamodel());
+
+        //many-to-one left join, fetch, order by 제거
+        assertThat(rewriter.rewrite("select m from Member m left join m.team t"))
+                .isEqualTo("select count(m) from Member m");
+        assertThat(rewriter.rewrite("select m from Member m left join fetch m.team order by m.age desc"))
+                .isEqualTo("select count(m) from Member m");
+        //where에서 별칭을 쓰면 남긴다.
+        assertThat(rewriter.rewrite("select m from Member m left join m.team t where t.name = :name order by m.id"))
+                .isEqualTo("select count(m) from Member m left join m.team t where t.name = :name");
+        //inner join은 건수를 줄이므로 남기고 fetch만 뺀다.
+        assertThat(rewriter.rewrite("select m from Member m join fetch m.team t"))
+                .isEqualTo("select count(m) from Member m join m.team t");
+        //컬렉션 join은 건수를 늘리므로 남긴다.
+        assertThat(rewriter.rewrite("select t from Team t left join fetch t.members m"))
+                .isEqualTo("select count(t) from Team t left join t.members m");
+        //on 조건이 있는 join은 남긴다.
+        assertThat(rewriter.rewrite("select m from Member m left join m.team t on t.name = 'teamA'"))
+                .isEqualTo("select count(m) from Member m left join m.team t on t.name = 'teamA'");
+        assertThat(rewriter.rewrite("select distinct m from Member m left join m.team t"))
+                .isEqualTo("select count(distinct m) from Member m");
+        //DTO 조회 : select 절의 join 별칭은 count와 무관하다.
+        assertThat(rewriter.rewrite("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t"))
+                .isEqualTo("select count(m) from Member m");
+    }
+
+    /**
+     * 변환한 count와 Spring Data 기본 count(join 유지) 결과가 같은지 실제 데이터로 확인한다.
+     */
+    @Test
+    public void rewrittenCountMatchesDefault() {
+        Team teamA = new Team("countA");
+        em.persist(teamA);
+        em.persist(new Member("count1", 10, teamA));
+        em.persist(new Member("count2", 20, teamA));
+        em.persist(new Member("count3", 30)); // 팀 없음
+        em.flush();
+        em.clear();
+
+        CountQueryRewriter rewriter = new CountQueryRewriter(em.getMetamodel());
+        String[] queries = {
+                "select m from Member m left join m.team t order by m.username",
+                "select m from Member m left join fetch m.team t",
+                "select m from Member m join m.team t",
+                "select t from Team t left join t.members m",
+                "select m from Member m left join m.team t where m.age >= 20",
+        };
+        for (String query : queries) {
+            String rewritten = rewriter.rewrite(query);
+            String original = QueryUtils.createCountQueryFor(query.replace(" fetch", ""));
+            assertThat(em.createQuery(rewritten, Long.class).getSingleResult())
+                    .as(rewritten)
+                    .isEqualTo(em.createQuery(original, Long.class).getSingleResult());
+        }
+    }
+
+    @Test
+    public void pagedQueryUsesRewrittenCount() {
+        long total = memberRepository.findByAge(10, PageRequest.of(0, 1)).getTotalElements();
+        memberRepository.save(new Member("countPage1", 10));
+        memberRepository.save(new Member("countPage2", 10));
+
+        Page<Member> page = memberRepository.findByAgeOfJPQL(10, PageRequest.of(0, 1));
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getTotalElements()).isEqualTo(total + 2);
+    }
+
+    /**
+     * Spring Data가 고쳐 쓰는 쿼리(SpEL, like 와일드카드)와 바인딩되지 않는 인자는 직접 실행하지 않는다. (null → Spring Data 실행)
+     */
+    @Test
+    public void resolveArguments() throws NoSuchMethodException {
+        Method method = ArgumentSamples.class.getMethod("find", String.class, int.class, Pageable.class);
+
+        assertThat(QueryArguments.resolve(method, "select m from Member m where m.username = :username and m.age = :age"))
+                .containsExactly("username", "age", null);
+        assertThat(QueryArguments.resolve(method, "select m from Member m where m.username = ?1 and m.age = ?2"))
+                .containsExactly(1, 2, null);
+        //age가 쿼리에 없다.
+        assertThat(QueryArguments.resolve(method, "select m from Member m where m.username = :username")).isNull();
+        assertThat(QueryArguments.resolve(method, "select m from Member m where m.username like %:username% and m.age = :age")).isNull();
+        assertThat(QueryArguments.resolve(method, "select m from Member m where m.username = :#{#username} and m.age = :age")).isNull();
+    }
+
+    interface ArgumentSamples {
+        List<Member> find(String username, @Param("age") int years, Pageable pageable);
+    }
+}
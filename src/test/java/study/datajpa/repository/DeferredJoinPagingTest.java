@@ -0,0 +1,75 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.FetchPlan;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class DeferredJoinPagingTest {
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void sameContentAndOrderAsFindAll() {
+        for (int i = 0; i < 12; i++) {
+            em.persist(new Member("deferred" + i, i % 4));
+        }
+        em.flush();
+        em.clear();
+        PageRequest pageRequest = PageRequest.of(1, 5,
+                Sort.by(Sort.Order.desc("age"), Sort.Order.desc("username"), Sort.Order.asc("id")));
+
+        Page<Member> expected = memberRepository.findAll(pageRequest);
+        em.clear();
+        Page<Member> deferred = memberRepository.findAllDeferred(pageRequest, FetchPlan.NONE);
+
+        assertThat(deferred.getTotalElements()).isEqualTo(expected.getTotalElements());
+        assertThat(deferred.getContent()).extracting(Member::getId)
+                .containsExactlyElementsOf(expected.map(Member::getId).getContent());
+    }
+
+    @Test
+    public void fetchPlanAppliesToEntityQuery() {
+        Team team = new Team("deferredTeam");
+        em.persist(team);
+        em.persist(new Member("deferredWithTeam", 1, team));
+        em.flush();
+        em.clear();
+
+        Page<Member> page = memberRepository.findAllDeferred(
+                PageRequest.of(0, 300, Sort.by(Sort.Direction.DESC, "id")), FetchPlan.of("team"));
+
+        Member member = page.getContent().stream()
+                .filter(m -> "deferredWithTeam".equals(m.getUsername()))
+                .findFirst().orElseThrow();
+        assertThat(em.getEntityManagerFactory().getPersistenceUnitUtil().isLoaded(member, "team")).isTrue();
+        assertThat(member.getTeam().getName()).isEqualTo("deferredTeam");
+    }
+
+    @Test
+    public void pageBeyondLastIsEmpty() {
+        long total = memberRepository.count();
+
+        Page<Member> page = memberRepository.findAllDeferred(
+                PageRequest.of((int) total + 1, 1, Sort.by("id")), FetchPlan.NONE);
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(total);
+    }
+}
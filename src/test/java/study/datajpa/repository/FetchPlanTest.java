@@ -0,0 +1,53 @@
+package study.datajpa.repository;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.FetchPlan;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class FetchPlanTest {
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void dynamicFetchPlan() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member m1 = new Member("m1", 0, teamA);
+        em.persist(m1);
+        em.flush();
+        em.clear();
+
+        // Fetch Plan이 없으면 team은 프록시로 남는다.
+        Member lazy = memberRepository.findById(m1.getId(), FetchPlan.NONE).get();
+        assertThat(Hibernate.isInitialized(lazy.getTeam())).isFalse();
+        em.clear();
+
+        // expand=team : fetch join으로 한번에 조회
+        Member fetched = memberRepository.findById(m1.getId(), FetchPlan.of("team")).get();
+        assertThat(Hibernate.isInitialized(fetched.getTeam())).isTrue();
+        em.clear();
+
+        // 페이징 : count 쿼리에는 fetch join이 걸리지 않는다.
+        Page<Member> page = memberRepository.findAll(PageRequest.of(0, 10, Sort.by("id")), FetchPlan.of("team"));
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(1);
+        assertThat(page.getContent()).allMatch(member -> Hibernate.isInitialized(member.getTeam()));
+    }
+}
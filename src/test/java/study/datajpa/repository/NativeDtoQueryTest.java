@@ -0,0 +1,69 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.ConstructorMapper;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class NativeDtoQueryTest {
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void nativePageOfDto() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("nativeDto1", 10, teamA));
+        em.persist(new Member("nativeDto2", 20));
+        em.flush();
+        long total = memberRepository.count();
+
+        Page<MemberDto> page = memberRepository.findByNativeDto(
+                PageRequest.of(0, 1000, Sort.by(Sort.Direction.ASC, "username")));
+
+        assertThat(page.getTotalElements()).isEqualTo(total);
+        assertThat(page.getContent()).allSatisfy(dto -> assertThat(dto).isExactlyInstanceOf(MemberDto.class));
+        assertThat(page.getContent())
+                .filteredOn(dto -> dto.getUsername().startsWith("nativeDto"))
+                .extracting(MemberDto::getUsername, MemberDto::getTeamName)
+                .containsExactly(tuple("nativeDto1", "teamA"), tuple("nativeDto2", null));
+    }
+
+    @Test
+    public void mapperMatchesLabelsByName() {
+        ConstructorMapper<MemberDto> mapper = new ConstructorMapper<>(MemberDto.class);
+        String[] aliases = {"TEAM_NAME", "USERNAME", "ID"};
+
+        MemberDto dto = mapper.map(new Object[]{"teamA", "member1", BigInteger.valueOf(7)}, aliases);
+
+        assertThat(dto.getId()).isEqualTo(7L);
+        assertThat(dto.getUsername()).isEqualTo("member1");
+        assertThat(dto.getTeamName()).isEqualTo("teamA");
+    }
+
+    @Test
+    public void mapperRequiresMatchingConstructor() {
+        ConstructorMapper<MemberDto> mapper = new ConstructorMapper<>(MemberDto.class);
+
+        assertThatThrownBy(() -> mapper.map(new Object[]{1L, "a", "b", "c"}, new String[]{"a", "b", "c", "d"}))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,103 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.RowSet;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class RowSetTest {
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void jpqlRows() {
+        memberRepository.save(new Member("rowA", 10));
+        memberRepository.save(new Member("rowB", 20));
+        em.flush();
+
+        RowSet rows = memberRepository.findUserNameListOfRows();
+
+        assertThat(rows.size()).isGreaterThanOrEqualTo(2);
+        assertThat(rows.getColumnNames()).containsExactly("username", "age");
+        int age = 0;
+        for (RowSet.Row row : rows) {
+            if ("rowB".equals(row.getString("username"))) {
+                age = row.getInt("age");
+            }
+        }
+        assertThat(age).isEqualTo(20);
+    }
+
+    @Test
+    public void nativeRows() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("rowC", 30, teamA));
+        em.persist(new Member("rowD", 40));
+        em.flush();
+
+        RowSet rows = memberRepository.findNativeRows(0, 1000);
+
+        int teamName = rows.columnIndex("teamName");
+        int username = rows.columnIndex("USERNAME");
+        boolean foundNullTeam = false;
+        for (int i = 0; i < rows.size(); i++) {
+            if ("rowC".equals(rows.getString(i, username))) {
+                assertThat(rows.getString(i, teamName)).isEqualTo("teamA");
+            }
+            if ("rowD".equals(rows.getString(i, username))) {
+                foundNullTeam = rows.isNull(i, teamName);
+            }
+        }
+        assertThat(foundNullTeam).isTrue();
+    }
+
+    @Test
+    public void nativeRowsOffsetLimit() {
+        em.persist(new Member("rowE", 5));
+        em.persist(new Member("rowF", 95));
+        em.flush();
+
+        RowSet first = memberRepository.findNativeRows(0, 1);
+        RowSet second = memberRepository.findNativeRows(1, 1);
+
+        assertThat(first.size()).isEqualTo(1);
+        assertThat(second.size()).isEqualTo(1);
+        int id = first.columnIndex("id");
+        assertThat(second.getLong(0, id)).isGreaterThan(first.getLong(0, id)); // order by member_id
+    }
+
+    @Test
+    public void emptyRowsKeepColumns() {
+        RowSet rows = memberRepository.findNativeRows(Integer.MAX_VALUE, 10);
+
+        assertThat(rows.isEmpty()).isTrue();
+        assertThat(rows.columnIndex("username")).isEqualTo(1);
+        assertThat(rows.columnIndex("teamName")).isEqualTo(3); // 0건이어도 select 절 별칭으로 조회
+    }
+
+    @Test
+    public void primitiveColumnKeepsNulls() {
+        RowSet rows = RowSet.builder(new String[]{"age"})
+                .add(new Object[]{null})
+                .add(new Object[]{7})
+                .build();
+
+        assertThat(rows.isNull(0, 0)).isTrue();
+        assertThat(rows.getInt(1, 0)).isEqualTo(7);
+        assertThat(rows.get(1, 0)).isEqualTo(7);
+    }
+}
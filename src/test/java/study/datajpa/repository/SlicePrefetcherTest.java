@@ -0,0 +1,86 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.support.SlicePrefetcher;
+import study.datajpa.repository.support.SliceScan;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 커밋한 데이터가 공유 DB에 남지 않도록 전용 메모리 DB를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:sliceprefetch;DB_CLOSE_DELAY=-1")
+class SlicePrefetcherTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    SlicePrefetcher slicePrefetcher;
+
+    @Test
+    public void scanAllSlices() {
+        int age = 2701;
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("prefetch" + i, age));
+        }
+        long total = memberRepository.findByAge(age, PageRequest.of(0, 1)).getTotalElements();
+
+        PageRequest first = PageRequest.of(0, 3, Sort.by("id"));
+        try (Stream<Member> members = slicePrefetcher
+                .scan(request -> memberRepository.findSliceByAge(age, request), first, 2)
+                .stream()) {
+            List<Long> ids = members.map(Member::getId).collect(Collectors.toList());
+
+            assertThat(ids).hasSize((int) total);
+            assertThat(ids).isSorted();
+        }
+    }
+
+    @Test
+    public void closeCancelsPrefetch() throws InterruptedException {
+        int age = 2702;
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("prefetch" + i, age));
+        }
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger interrupted = new AtomicInteger();
+        AtomicInteger completedAfterClose = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // 첫 Slice 이후의 미리 조회는 close() 될 때까지 막아 둔다.
+        SliceScan<Member> scan = slicePrefetcher.scan(request -> {
+            calls.incrementAndGet();
+            if (request.getPageNumber() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                    throw new CancellationException();
+                }
+                completedAfterClose.incrementAndGet();
+            }
+            return memberRepository.findSliceByAge(age, request);
+        }, PageRequest.of(0, 2), 3);
+        Slice<Member> firstSlice = scan.next();
+        scan.close();
+        release.countDown();
+        Thread.sleep(200);
+
+        assertThat(firstSlice.getContent()).hasSize(2);
+        assertThat(scan.hasNext()).isFalse();
+        assertThat(completedAfterClose.get()).isZero(); // 실행 중이던 조회는 인터럽트, 대기 중이던 조회는 실행되지 않는다.
+        assertThat(calls.get()).isEqualTo(1 + interrupted.get());
+    }
+}
@@ -0,0 +1,174 @@
+package study.datajpa.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.KeysetPosition;
+import study.datajpa.repository.support.KeysetWindow;
+import study.datajpa.repository.support.SpecificationQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class SpecificationQueryTest {
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    Statistics statistics;
+
+    interface NameAndAge {
+        String getUsername();
+        int getAge();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        Team team = new Team("specTeam");
+        em.persist(team);
+        for (int i = 0; i < 11; i++) {
+            em.persist(new Member("spec" + i, i % 4, team));
+        }
+        em.persist(new Member("spec-solo", 50));
+        em.flush();
+        em.clear();
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    public void dtoProjectionSelectsColumnsOnly() {
+        List<MemberDto> result = memberRepository.query(MemberSpecification.teamName("specTeam"))
+                .sortBy(Sort.by("username"))
+                .as(MemberDto.class)
+                .list();
+
+        assertThat(result).hasSize(11);
+        assertThat(result.get(0).getUsername()).isEqualTo("spec0");
+        assertThat(result).extracting(MemberDto::getTeamName).containsOnly("specTeam");
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(0); // 엔티티를 만들지 않는다.
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        MemberDto solo = memberRepository.query(MemberSpecification.username("spec-solo"))
+                .as(MemberDto.class)
+                .first().get();
+        assertThat(solo.getTeamName()).isNull(); // team은 left join
+    }
+
+    @Test
+    public void interfaceProjection() {
+        List<NameAndAge> result = memberRepository.query(MemberSpecification.teamName("specTeam"))
+                .sortBy(Sort.by(Sort.Order.desc("age"), Sort.Order.asc("username")))
+                .as(NameAndAge.class)
+                .list();
+
+        assertThat(result).extracting(NameAndAge::getUsername).startsWith("spec3", "spec7", "spec10");
+        assertThat(result.get(0).getAge()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void pageMatchesFindAll() {
+        Specification<Member> spec = MemberSpecification.teamName("specTeam");
+        PageRequest pageRequest = PageRequest.of(1, 4, Sort.by("age", "id"));
+
+        Page<Member> expected = memberRepository.findAll(spec, pageRequest);
+        Page<MemberDto> page = memberRepository.query(spec).as(MemberDto.class).page(pageRequest);
+
+        assertThat(page.getTotalElements()).isEqualTo(11);
+        assertThat(page.getContent()).extracting(MemberDto::getId)
+                .containsExactlyElementsOf(expected.map(Member::getId).getContent());
+    }
+
+    @Test
+    public void scrollWalksEveryRowOnce() {
+        SpecificationQuery<Member, MemberDto> query = memberRepository.query(MemberSpecification.teamName("specTeam"))
+                .sortBy(Sort.by(Sort.Direction.DESC, "age"))
+                .as(MemberDto.class);
+        List<Long> expected = query.sortBy(Sort.by(Sort.Order.desc("age"), Sort.Order.asc("id"))).list()
+                .stream().map(MemberDto::getId).collect(Collectors.toList());
+
+        List<Long> scrolled = new ArrayList<>();
+        KeysetPosition position = KeysetPosition.initial();
+        int windows = 0;
+        KeysetWindow<MemberDto> window;
+        do {
+            window = query.scroll(position, 4);
+            window.getContent().forEach(dto -> scrolled.add(dto.getId()));
+            position = window.getNext();
+            windows++;
+        } while (window.hasNext());
+
+        assertThat(windows).isEqualTo(3);
+        assertThat(scrolled).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void scrollFromClientValues() {
+        SpecificationQuery<Member, Member> query = memberRepository.query(MemberSpecification.teamName("specTeam"))
+                .sortBy(Sort.by("age"));
+        KeysetWindow<Member> first = query.scroll(KeysetPosition.initial(), 5);
+        List<String> after = first.getNext().getValues().stream()
+                .map(String::valueOf)
+                .collect(Collectors.toList()); // 요청 파라미터처럼 문자열로 넘어온 값
+
+        KeysetWindow<Member> second = query.scroll(KeysetPosition.after(after), 5);
+        assertThat(second.getContent().get(0).getAge()).isGreaterThanOrEqualTo(first.getContent().get(4).getAge());
+        assertThat(second.getContent()).doesNotContainAnyElementsOf(first.getContent());
+
+        assertThatThrownBy(() -> query.scroll(KeysetPosition.after(Arrays.asList("1")), 5))
+                .isInstanceOf(IllegalArgumentException.class); // 정렬(age, id)과 값 수가 다르다.
+        assertThatThrownBy(() -> query.scroll(KeysetPosition.initial(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void scrollRejectsNullableSort() {
+        SpecificationQuery<Member, MemberDto> query = memberRepository.query(MemberSpecification.teamName("specTeam"))
+                .as(MemberDto.class);
+
+        assertThatThrownBy(() -> query.sortBy(Sort.by("team.name")).scroll(KeysetPosition.initial(), 4))
+                .isInstanceOf(IllegalArgumentException.class); // 팀이 없는 회원은 null
+        assertThatThrownBy(() -> query.sortBy(Sort.by("username")).scroll(KeysetPosition.initial(), 4))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(query.sortBy(Sort.by("age")).scroll(KeysetPosition.initial(), 4).getContent()).hasSize(4);
+    }
+
+    @Test
+    public void streamInsideTransaction() {
+        try (Stream<NameAndAge> stream = memberRepository.query(MemberSpecification.teamName("specTeam"))
+                .as(NameAndAge.class)
+                .stream(4)) {
+            assertThat(stream.mapToInt(NameAndAge::getAge).sum()).isEqualTo(0 + 1 + 2 + 3 + 0 + 1 + 2 + 3 + 0 + 1 + 2);
+        }
+    }
+}
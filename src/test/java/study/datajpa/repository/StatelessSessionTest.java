@@ -0,0 +1,63 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class StatelessSessionTest {
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void insertUpdateAndStream() {
+        Member m1 = new Member("stateless1", 10);
+        Member m2 = new Member("stateless2", 20);
+        memberRepository.insertStateless(Arrays.asList(m1, m2));
+
+        assertThat(m1.getId()).isNotNull();
+        assertThat(em.contains(m1)).isFalse(); // 영속성 컨텍스트에 없다.
+
+        m1.setAge(11);
+        memberRepository.updateStateless(Arrays.asList(m1));
+
+        List<Member> streamed = new ArrayList<>();
+        long count = memberRepository.forEachMemberStateless(100, member -> {
+            if (member.getUsername().startsWith("stateless")) {
+                streamed.add(member);
+            }
+        });
+
+        assertThat(count).isGreaterThanOrEqualTo(2);
+        assertThat(streamed).extracting("age").contains(11, 20);
+        assertThat(em.contains(streamed.get(0))).isFalse();
+    }
+
+    @Test
+    public void statelessWritesAppendOutboxRows() {
+        Member member = new Member("stateless3", 30);
+        memberRepository.insertStateless(Arrays.asList(member));
+        member.setAge(31);
+        memberRepository.updateStateless(Arrays.asList(member));
+
+        List<?> eventTypes = em.createNativeQuery("select event_type from outbox_event " +
+                        "where aggregate_type = 'Member' and aggregate_id = ? order by outbox_event_id")
+                .setParameter(1, String.valueOf(member.getId()))
+                .getResultList();
+        assertThat(eventTypes).containsExactly("CREATED", "UPDATED"); // 이벤트가 없는 쓰기도 같은 트랜잭션에 기록
+    }
+}
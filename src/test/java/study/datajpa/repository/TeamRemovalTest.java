@@ -0,0 +1,64 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.TeamRemovalDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class TeamRemovalTest {
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void removeTeamReassigningMembers() {
+        Team teamA = teamRepository.save(new Team("removeA"));
+        Team teamB = teamRepository.save(new Team("removeB"));
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("remove" + i, i, teamA));
+        }
+        em.flush();
+        em.clear();
+        Member managed = memberRepository.findByUsername("remove0").get(0);
+
+        TeamRemovalDto result = teamRepository.removeTeam(teamA.getId(), teamB.getId(), 2);
+
+        assertThat(result.getMemberCount()).isEqualTo(5);
+        assertThat(result.getChunks()).isEqualTo(3); // 2 + 2 + 1
+        assertThat(em.contains(managed)).isFalse(); // 벌크 연산으로 바뀐 회원은 분리된다.
+        em.flush();
+        em.clear();
+        assertThat(teamRepository.findById(teamA.getId())).isEmpty();
+        assertThat(memberRepository.findByUsername("remove0").get(0).getTeam().getId()).isEqualTo(teamB.getId());
+    }
+
+    @Test
+    public void removeTeamWithMembers() {
+        Team team = teamRepository.save(new Team("removeC"));
+        memberRepository.save(new Member("removeC1", 10, team));
+        memberRepository.save(new Member("removeC2", 20, team));
+
+        TeamRemovalDto result = teamRepository.removeTeam(team.getId(), null, 100);
+
+        assertThat(result.getMemberCount()).isEqualTo(2);
+        assertThat(result.getChunks()).isEqualTo(1);
+        em.flush();
+        em.clear();
+        assertThat(memberRepository.findByUsername("removeC1")).isEmpty();
+        assertThat(teamRepository.findById(team.getId())).isEmpty();
+    }
+}
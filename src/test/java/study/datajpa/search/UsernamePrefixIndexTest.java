@@ -0,0 +1,83 @@
+package study.datajpa.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class UsernamePrefixIndexTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    UsernamePrefixIndex usernamePrefixIndex;
+
+    @Test
+    public void mergeBaseAndDelta() {
+        UsernamePrefixIndex index = new UsernamePrefixIndex(100);
+        index.load(new String[]{"kim", "apple", "apricot"}, new long[]{3, 1, 2}, 3);
+        index.put(4, "apex");
+        index.remove(2); // apricot 삭제
+        index.put(1, "banana"); // apple → banana
+
+        List<UsernameMatch> result = index.search("ap", 10);
+
+        assertThat(result).extracting("username").containsExactly("apex");
+        assertThat(index.search("", 10)).extracting("username").containsExactly("apex", "banana", "kim");
+        assertThat(index.search("", 2)).hasSize(2);
+    }
+
+    @Test
+    public void compaction() {
+        UsernamePrefixIndex index = new UsernamePrefixIndex(2);
+        for (int i = 0; i < 10; i++) {
+            index.put(i, "user" + i);
+        }
+        index.remove(5);
+
+        assertThat(index.size()).isEqualTo(9);
+        assertThat(index.search("user", 3)).extracting("id").containsExactly(0L, 1L, 2L);
+        assertThat(index.search("user5", 3)).isEmpty();
+    }
+
+    @Test
+    public void unchangedUsernameAddsNoDelta() {
+        UsernamePrefixIndex index = new UsernamePrefixIndex(100);
+        index.load(new String[]{"apple", "kim"}, new long[]{1, 2}, 2);
+        index.put(1, "apple"); // 나이, 팀만 바뀐 수정
+        index.put(3, "apex");
+        index.put(3, "apex");
+
+        assertThat(index.pendingChanges()).isEqualTo(2); // apex 추가 + tombstone(3)
+        assertThat(index.search("ap", 10)).extracting("username").containsExactly("apex", "apple");
+    }
+
+    @Test
+    public void changesDuringLoadSurviveSwap() {
+        UsernamePrefixIndex index = new UsernamePrefixIndex(100);
+        index.load(new String[]{"apple", "kim"}, new long[]{1, 2}, 2);
+
+        index.beginLoad();
+        index.put(3, "apex"); // 스냅샷을 읽은 뒤에 커밋된 변경
+        index.remove(2);
+        index.load(new String[]{"apple", "kim"}, new long[]{1, 2}, 2); // 3, 2 변경이 없는 스냅샷
+
+        assertThat(index.search("", 10)).extracting("username").containsExactly("apex", "apple");
+    }
+
+    @Test
+    public void entityListenerKeepsIndexInSync() {
+        Member member = memberRepository.save(new Member("autocompleteA", 10));
+        assertThat(usernamePrefixIndex.search("autocompleteA", 10))
+                .extracting("id").contains(member.getId());
+
+        memberRepository.delete(member);
+        assertThat(usernamePrefixIndex.search("autocompleteA", 10))
+                .extracting("id").doesNotContain(member.getId());
+    }
+}
@@ -0,0 +1,93 @@
+package study.datajpa.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ShardedMemberRepositoryTest {
+
+    ShardedMemberRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            dataSources.add(new DriverManagerDataSource("jdbc:h2:mem:shard" + i + "-" + run + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        }
+        repository = new ShardedMemberRepository(dataSources);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    public void routesByTeamAndFindsByShardAwareId() {
+        ShardedMember member = repository.save("member1", 10, 5L);
+        repository.save("member2", 20, 5L);
+        repository.save("member3", 30, 6L);
+
+        assertThat(member.getShard()).isEqualTo(5 % 3);
+        assertThat(repository.findById(member.getId())).get()
+                .extracting(ShardedMember::getUsername).isEqualTo("member1");
+        assertThat(repository.findByTeamId(5L)).extracting(ShardedMember::getUsername)
+                .containsExactly("member1", "member2");
+        assertThat(repository.findById(ShardIds.compose(999, 1))).isEmpty();
+    }
+
+    @Test
+    public void idsAreUniqueAcrossShards() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            ids.add(repository.save("member" + i, i, (long) i).getId());
+        }
+
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(ids).allSatisfy(id -> assertThat(ShardIds.shardOf(id)).isLessThan(3));
+    }
+
+    @Test
+    public void pageMergesShardsInSortOrder() {
+        List<ShardedMember> saved = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            saved.add(repository.save("member" + i, i % 7, i % 5 == 0 ? null : (long) i));
+        }
+        List<Long> expected = saved.stream()
+                .sorted(Comparator.comparingInt(ShardedMember::getAge).reversed()
+                        .thenComparing(ShardedMember::getUsername)
+                        .thenComparing(ShardedMember::getId))
+                .map(ShardedMember::getId)
+                .collect(Collectors.toList());
+
+        Sort sort = Sort.by(Sort.Order.desc("age"), Sort.Order.asc("username"));
+        List<Long> actual = new ArrayList<>();
+        for (int page = 0; page < 5; page++) {
+            Page<ShardedMember> result = repository.findAll(PageRequest.of(page, 9, sort));
+            assertThat(result.getTotalElements()).isEqualTo(40);
+            result.forEach(member -> actual.add(member.getId()));
+        }
+
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void rejectsUnknownSortProperty() {
+        assertThatThrownBy(() -> repository.findAll(PageRequest.of(0, 10, Sort.by("password"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
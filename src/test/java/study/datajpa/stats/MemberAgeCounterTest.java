@@ -0,0 +1,98 @@
+package study.datajpa.stats;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * flush는 자체 트랜잭션으로 커밋하므로 테스트 트랜잭션 없이 실행한다. (스케줄 flush는 끈다.) <br/>
+ * 커밋한 데이터가 공유 DB에 남지 않도록 전용 메모리 DB를 사용한다.
+ */
+@SpringBootTest(properties = {"datajpa.write-behind.flush-interval-ms=3600000",
+        "spring.datasource.url=jdbc:h2:mem:writebehind;DB_CLOSE_DELAY=-1"})
+class MemberAgeCounterTest {
+    @Autowired
+    MemberAgeCounter memberAgeCounter;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TeamStatsAggregate teamStatsAggregate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void coalescesConcurrentIncrements() throws Exception {
+        memberAgeCounter.flush();
+        Member m1 = memberRepository.save(new Member("writeBehind1", 10));
+        Member m2 = memberRepository.save(new Member("writeBehind2", 9000));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    memberAgeCounter.increment(m1.getId());
+                    memberAgeCounter.add(m2.getId(), -1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(memberAgeCounter.pending(m1.getId())).isEqualTo(8000);
+        assertThat(memberRepository.findById(m1.getId()).get().getAge()).isEqualTo(10); // 아직 반영 전
+
+        assertThat(memberAgeCounter.flush()).isEqualTo(2);
+
+        assertThat(memberRepository.findById(m1.getId()).get().getAge()).isEqualTo(8010);
+        assertThat(memberRepository.findById(m2.getId()).get().getAge()).isEqualTo(1000);
+        assertThat(memberAgeCounter.pending(m1.getId())).isZero();
+        assertThat(memberAgeCounter.flush()).isZero();
+    }
+
+    @Test
+    public void teamStatsFollowBucketChanges() {
+        memberAgeCounter.flush();
+        Team team = teamRepository.save(new Team("writeBehindTeam"));
+        Member member = memberRepository.save(new Member("writeBehind3", 19, team));
+
+        memberAgeCounter.add(member.getId(), 2);
+        memberAgeCounter.flush();
+
+        assertThat(teamStatsAggregate.get(team.getId()).getAgeHistogram()[1]).isZero();
+        assertThat(teamStatsAggregate.get(team.getId()).getAgeHistogram()[2]).isEqualTo(1);
+        assertThat(teamStatsAggregate.check()).isEmpty();
+    }
+
+    @Test
+    public void flushAppendsOutboxEvents() {
+        memberAgeCounter.flush();
+        Member member = memberRepository.save(new Member("writeBehind4", 30));
+
+        memberAgeCounter.add(member.getId(), 5);
+        memberAgeCounter.flush();
+
+        List<String> payloads = jdbcTemplate.queryForList("select payload from outbox_event " +
+                "where aggregate_type = 'Member' and aggregate_id = ? and event_type = 'UPDATED'",
+                String.class, String.valueOf(member.getId()));
+        assertThat(payloads).hasSize(1);
+        assertThat(payloads.get(0)).contains("\"age\":35"); // update 후 값
+    }
+}
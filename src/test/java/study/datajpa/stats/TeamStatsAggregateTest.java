@@ -0,0 +1,140 @@
+package study.datajpa.stats;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.TeamStatsDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 통계는 커밋 후에 반영되므로 테스트 트랜잭션 없이 실행한다. <br/>
+ * 커밋한 데이터가 공유 DB에 남지 않도록 전용 메모리 DB를 사용한다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:teamstats;DB_CLOSE_DELAY=-1")
+class TeamStatsAggregateTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TeamStatsAggregate teamStatsAggregate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void incrementalUpdates() {
+        Team teamA = teamRepository.save(new Team("statsA"));
+        Team teamB = teamRepository.save(new Team("statsB"));
+        Member m1 = memberRepository.save(new Member("stats1", 19, teamA));
+        memberRepository.save(new Member("stats2", 25, teamA));
+
+        TeamStatsDto statsA = teamStatsAggregate.get(teamA.getId());
+        assertThat(statsA.getMemberCount()).isEqualTo(2);
+        assertThat(statsA.getAgeHistogram()[1]).isEqualTo(1); // 10대
+        assertThat(statsA.getAgeHistogram()[2]).isEqualTo(1); // 20대
+
+        //팀 변경 : A -1, B +1
+        m1.setTeam(teamB);
+        memberRepository.save(m1);
+        assertThat(teamStatsAggregate.get(teamA.getId()).getMemberCount()).isEqualTo(1);
+        assertThat(teamStatsAggregate.get(teamB.getId()).getMemberCount()).isEqualTo(1);
+
+        //벌크 연산 : 19 → 20 (10대 → 20대)
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> memberRepository.bulkAgePlus(19));
+        TeamStatsDto statsB = teamStatsAggregate.get(teamB.getId());
+        assertThat(statsB.getAgeHistogram()[1]).isEqualTo(0);
+        assertThat(statsB.getAgeHistogram()[2]).isEqualTo(1);
+
+        //삭제
+        memberRepository.delete(m1);
+        assertThat(teamStatsAggregate.get(teamB.getId()).getMemberCount()).isEqualTo(0);
+
+        assertThat(teamStatsAggregate.check()).isEmpty();
+    }
+
+    @Test
+    public void rollbackIsNotApplied() {
+        Team team = teamRepository.save(new Team("statsRollback"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.save(new Member("rollback", 30, team));
+            memberRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(teamStatsAggregate.get(team.getId()).getMemberCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void teamRemovalMovesCounters() {
+        Team removed = teamRepository.save(new Team("statsRemoved"));
+        Team target = teamRepository.save(new Team("statsTarget"));
+        memberRepository.save(new Member("removed1", 15, removed));
+        memberRepository.save(new Member("removed2", 35, removed));
+        memberRepository.save(new Member("target1", 35, target));
+
+        teamRepository.removeTeam(removed.getId(), target.getId(), 10);
+
+        TeamStatsDto stats = teamStatsAggregate.get(target.getId());
+        assertThat(stats.getMemberCount()).isEqualTo(3);
+        assertThat(stats.getAgeHistogram()[1]).isEqualTo(1);
+        assertThat(stats.getAgeHistogram()[3]).isEqualTo(2);
+        assertThat(teamStatsAggregate.get(removed.getId()).getMemberCount()).isEqualTo(0);
+        assertThat(teamStatsAggregate.check()).isEmpty();
+    }
+
+    @Test
+    public void rebuildYieldsToLongTransaction() throws Exception {
+        Team team = teamRepository.save(new Team("statsRebuild"));
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> longWriter = executor.submit(() -> new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> {
+                        memberRepository.save(new Member("rebuild", 30, team));
+                        memberRepository.flush(); // 증감 기록 (커밋까지 읽기 락 유지)
+                        recorded.countDown();
+                        await(commit);
+                    }));
+            recorded.await();
+
+            teamStatsAggregate.rebuild(); // 쓰기 락을 얻지 못하면 기다리지 않고 stale 표시
+            assertThat(teamStatsAggregate.isStale()).isTrue();
+
+            Future<?> otherWriter = executor.submit(() -> new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> {
+                        memberRepository.save(new Member("rebuild2", 40, team));
+                        memberRepository.flush();
+                    }));
+            otherWriter.get(5, TimeUnit.SECONDS); // 대기 중인 재구성 때문에 다른 회원 변경이 멈추지 않는다.
+
+            commit.countDown();
+            longWriter.get(5, TimeUnit.SECONDS); // 종료 시 미뤄둔 재구성
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(teamStatsAggregate.isStale()).isFalse();
+        assertThat(teamStatsAggregate.get(team.getId()).getMemberCount()).isEqualTo(2);
+        assertThat(teamStatsAggregate.check()).isEmpty();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}